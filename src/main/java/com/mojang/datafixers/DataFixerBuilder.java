@@ -5,6 +5,7 @@ package com.mojang.datafixers;
 import com.google.common.collect.Lists;
 import com.mojang.datafixers.schemas.Schema;
 import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.types.templates.TaggedChoice;
 import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
 import it.unimi.dsi.fastutil.ints.IntAVLTreeSet;
@@ -72,7 +73,7 @@ public class DataFixerBuilder {
                 futures.add(CompletableFuture.runAsync(() -> {
                     final Type<?> dataType = schema.getType(() -> typeName);
                     final TypeRewriteRule rule = fixerUpper.getRule(DataFixUtils.getVersion(versionKey), dataVersion);
-                    dataType.rewrite(rule, DataFixerUpper.OPTIMIZATION_RULE);
+                    TaggedChoice.rewriteOn(executor, () -> dataType.rewrite(rule, DataFixerUpper.OPTIMIZATION_RULE));
                 }, executor).exceptionally(e -> {
                     LOGGER.error("Unable to build datafixers", e);
                     Runtime.getRuntime().exit(1);
@@ -23,7 +23,7 @@ final class Apply<A, B> extends PointFree<B> {
 
     @Override
     public Function<DynamicOps<?>, B> eval() {
-        return ops -> func.evalCached().apply(ops).apply(arg.evalCached().apply(ops));
+        return ops -> func.evalCached(ops).apply(arg.evalCached(ops));
     }
 
     @Override
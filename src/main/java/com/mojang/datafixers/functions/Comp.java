@@ -74,10 +74,10 @@ final class Comp<A, B, C> extends PointFree<Function<A, C>> {
 
     @Override
     public Function<DynamicOps<?>, Function<A, C>> eval() {
-        return ops -> input -> {
-            final Function<A, B> s = second.evalCached().apply(ops);
-            final Function<B, C> f = first.evalCached().apply(ops);
-            return f.apply(s.apply(input));
+        return ops -> {
+            final Function<A, B> s = second.evalCached(ops);
+            final Function<B, C> f = first.evalCached(ops);
+            return input -> f.apply(s.apply(input));
         };
     }
 }
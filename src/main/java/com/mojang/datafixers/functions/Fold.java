@@ -9,8 +9,11 @@ import com.mojang.datafixers.types.families.Algebra;
 import com.mojang.datafixers.types.families.RecursiveTypeFamily;
 import com.mojang.datafixers.types.templates.RecursivePoint;
 import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.WorkStack;
 import com.mojang.serialization.DynamicOps;
 
+import javax.annotation.Nullable;
+
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
@@ -36,16 +39,32 @@ final class Fold<A, B> extends PointFree<Function<A, B>> {
         return Functions.comp(resResult.view().newType(), ((View<FB, B>) op.view()).function(), ((View<A, FB>) resResult.view()).function());
     }
 
+    private PointFree<Function<A, B>> unfold() {
+        final RecursiveTypeFamily family = aType.family();
+
+        final IntFunction<RewriteResult<?, ?>> hmapped = HMAP_CACHE.computeIfAbsent(Pair.of(family, algebra), key -> key.getFirst().template().hmap(key.getFirst(), key.getFirst().foldChanged(key.getSecond())));
+        final RewriteResult<?, ?> result = HMAP_APPLY_CACHE.computeIfAbsent(Pair.of(hmapped, index), key -> key.getFirst().apply(key.getSecond()));
+
+        return cap(function, result);
+    }
+
     @Override
     public Function<DynamicOps<?>, Function<A, B>> eval() {
-        return ops -> a -> {
-            final RecursiveTypeFamily family = aType.family();
-
-            final IntFunction<RewriteResult<?, ?>> hmapped = HMAP_CACHE.computeIfAbsent(Pair.of(family, algebra), key -> key.getFirst().template().hmap(key.getFirst(), key.getFirst().fold(key.getSecond())));
-            final RewriteResult<?, ?> result = HMAP_APPLY_CACHE.computeIfAbsent(Pair.of(hmapped, index), key -> key.getFirst().apply(key.getSecond()));
+        // the unfolded body contains folds over the same family, so it has to be bound lazily on first use
+        // nested applications run through WorkStack, so deeply nested data does not overflow the stack
+        return ops -> new Function<A, B>() {
+            @Nullable
+            private volatile Function<A, B> bound;
 
-            final PointFree<Function<A, B>> eval = cap(function, result);
-            return eval.evalCached().apply(ops).apply(a);
+            @Override
+            public B apply(final A a) {
+                Function<A, B> f = bound;
+                if (f == null) {
+                    f = unfold().evalCached(ops);
+                    bound = f;
+                }
+                return WorkStack.apply(this, a, f);
+            }
         };
     }
 
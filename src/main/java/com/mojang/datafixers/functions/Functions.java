@@ -59,4 +59,18 @@ public abstract class Functions {
     public static <A> PointFree<Function<A, A>> id() {
         return (Id<A>) ID;
     }
+
+    /**
+     * true if the function evaluates to identity for every ops: id, in, out and compositions of those
+     */
+    public static boolean isIdentity(final PointFree<?> function) {
+        if (function instanceof Id<?> || function instanceof In<?> || function instanceof Out<?>) {
+            return true;
+        }
+        if (function instanceof Comp<?, ?, ?>) {
+            final Comp<?, ?, ?> comp = (Comp<?, ?, ?>) function;
+            return isIdentity(comp.first) && isIdentity(comp.second);
+        }
+        return false;
+    }
 }
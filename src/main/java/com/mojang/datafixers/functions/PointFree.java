@@ -7,12 +7,21 @@ import com.mojang.serialization.DynamicOps;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.function.Function;
 
 public abstract class PointFree<T> {
+    private static final int MAX_BOUND_OPS = 4;
+    private static final Object[] NO_BOUND_OPS = new Object[0];
+
     private volatile boolean initialized;
     @Nullable
     private Function<DynamicOps<?>, T> value;
+    // alternating weak references to ops and soft references to their bound values, replaced as a whole on every insertion
+    private volatile Object[] bound = NO_BOUND_OPS;
 
     @SuppressWarnings("ConstantConditions")
     public Function<DynamicOps<?>, T> evalCached() {
@@ -27,6 +36,52 @@ public abstract class PointFree<T> {
         return value;
     }
 
+    /**
+     * Returns the value specialized to the given ops, cached for a handful of ops, which are compared by equality.
+     * Ops are only weakly referenced and values softly, since values usually refer to their ops: both are released once
+     * the value is not used for a while or memory runs low. Any further ops are evaluated on every call.
+     */
+    @SuppressWarnings("unchecked")
+    public T evalCached(final DynamicOps<?> ops) {
+        final Object[] entries = bound;
+        boolean full = entries.length == MAX_BOUND_OPS * 2;
+        for (int i = 0; i < entries.length; i += 2) {
+            final Object cached = ((Reference<?>) entries[i]).get();
+            final Object value = ((Reference<?>) entries[i + 1]).get();
+            if (value != null && (cached == ops || ops.equals(cached))) {
+                return (T) value;
+            }
+            full &= cached != null && value != null;
+        }
+        final T result = evalCached().apply(ops);
+        if (!full) {
+            synchronized (this) {
+                // drop the entries that were released, then add this one if there is room left
+                final Object[] current = bound;
+                final Object[] live = new Object[current.length + 2];
+                int size = 0;
+                for (int i = 0; i < current.length; i += 2) {
+                    final Object cached = ((Reference<?>) current[i]).get();
+                    final Object value = ((Reference<?>) current[i + 1]).get();
+                    if (cached == null || value == null) {
+                        continue;
+                    }
+                    if (cached == ops || ops.equals(cached)) {
+                        return (T) value;
+                    }
+                    live[size++] = current[i];
+                    live[size++] = current[i + 1];
+                }
+                if (size < MAX_BOUND_OPS * 2) {
+                    live[size++] = new WeakReference<>(ops);
+                    live[size++] = new SoftReference<>(result);
+                }
+                bound = Arrays.copyOf(live, size);
+            }
+        }
+        return result;
+    }
+
     public abstract Function<DynamicOps<?>, T> eval();
 
     PointFree<T> all(final PointFreeRule rule, final Type<T> type) {
@@ -17,6 +17,7 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Dynamic;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.RecordBuilder;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.commons.lang3.tuple.Triple;
 
@@ -120,6 +121,22 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         return codec().encode(value, ops, ops.empty());
     }
 
+    /**
+     * Whether values of this type encode to fields of a map: tags, the remainder, and products and sums made of them.
+     * Such values can be written into a single record builder with {@link #encodeFields}, so that the map is built once.
+     */
+    public boolean encodesToFields() {
+        return false;
+    }
+
+    /**
+     * Adds the fields of the value to the builder. Types that don't {@link #encodesToFields() encode to fields} encode the
+     * value on its own and add the entries of the resulting map, or record an error if it is not a map.
+     */
+    public <T> RecordBuilder<T> encodeFields(final A value, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+        return codec().encodeFields(value, ops, builder);
+    }
+
     public final <T> DataResult<Dynamic<T>> writeDynamic(final DynamicOps<T> ops, final A value) {
         return write(ops, value).map(result -> new Dynamic<>(ops, result));
     }
@@ -134,7 +151,7 @@ public abstract class Type<A> implements App<Type.Mu, A> {
 
     public <T> DataResult<Pair<Optional<?>, T>> read(final DynamicOps<T> ops, final TypeRewriteRule rule, final PointFreeRule fRule, final T input) {
         return codec().decode(ops, input).map(vo -> vo.mapFirst(v ->
-            rewrite(rule, fRule).map(r -> r.view().function().evalCached().apply(ops).apply(v)
+            rewrite(rule, fRule).map(r -> r.view().function().evalCached(ops).apply(v)
             )
         ));
     }
@@ -142,7 +159,7 @@ public abstract class Type<A> implements App<Type.Mu, A> {
     public <T> DataResult<T> readAndWrite(final DynamicOps<T> ops, final Type<?> expectedType, final TypeRewriteRule rule, final PointFreeRule fRule, final T input) {
         final Optional<RewriteResult<A, ?>> rewriteResult = rewrite(rule, fRule);
         if (!rewriteResult.isPresent()) {
-            return DataResult.error("Could not build a rewrite rule: " + rule + " " + fRule, input);
+            return DataResult.error(() -> "Could not build a rewrite rule: " + rule + " " + fRule, input);
         }
         final View<A, ?> view = rewriteResult.get().view();
 
@@ -155,7 +172,7 @@ public abstract class Type<A> implements App<Type.Mu, A> {
         if (!expectedType.equals(f.newType(), true, true)) {
             return DataResult.error("Rewritten type doesn't match");
         }
-        return f.newType().codec().encode(f.function().evalCached().apply(ops).apply(value), ops, rest);
+        return f.newType().codec().encode(f.function().evalCached(ops).apply(value), ops, rest);
     }
 
     @SuppressWarnings("unchecked")
@@ -8,6 +8,7 @@ import com.mojang.datafixers.types.templates.TypeTemplate;
 import com.mojang.datafixers.util.Unit;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.RecordBuilder;
 
 import java.util.Optional;
 
@@ -36,4 +37,14 @@ public final class EmptyPart extends Type<Unit> {
     protected Codec<Unit> buildCodec() {
         return Codec.EMPTY.codec();
     }
+
+    @Override
+    public boolean encodesToFields() {
+        return true;
+    }
+
+    @Override
+    public <T> RecordBuilder<T> encodeFields(final Unit value, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+        return builder;
+    }
 }
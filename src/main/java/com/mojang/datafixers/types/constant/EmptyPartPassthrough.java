@@ -6,10 +6,14 @@ import com.mojang.datafixers.DSL;
 import com.mojang.datafixers.types.Type;
 import com.mojang.datafixers.types.templates.TypeTemplate;
 import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Dynamic;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.RecordBuilder;
 
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public final class EmptyPartPassthrough extends Type<Dynamic<?>> {
     @Override
@@ -36,4 +40,19 @@ public final class EmptyPartPassthrough extends Type<Dynamic<?>> {
     public Codec<Dynamic<?>> buildCodec() {
         return Codec.PASSTHROUGH;
     }
+
+    @Override
+    public boolean encodesToFields() {
+        return true;
+    }
+
+    @Override
+    public <T> RecordBuilder<T> encodeFields(final Dynamic<?> value, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+        if (value.getValue() == value.getOps().empty()) {
+            return builder;
+        }
+        final DataResult<Consumer<BiConsumer<T, T>>> entries = ops.getMapEntries(value.convert(ops).getValue());
+        entries.result().ifPresent(c -> c.accept(builder::add));
+        return builder.withErrorsFrom(entries);
+    }
 }
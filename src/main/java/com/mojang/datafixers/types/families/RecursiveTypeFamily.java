@@ -37,6 +37,8 @@ public final class RecursiveTypeFamily implements TypeFamily {
 
     private final Int2ObjectMap<RecursivePoint.RecursivePointType<?>> types = Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>());
     private final int hashCode;
+    @Nullable
+    private volatile BitSet[] references;
 
     public RecursiveTypeFamily(final String name, final TypeTemplate template) {
         this.name = name;
@@ -101,6 +103,65 @@ public final class RecursiveTypeFamily implements TypeFamily {
         };
     }
 
+    /**
+     * Same as fold, but indices the algebra can't change get identity views instead of folds:
+     * the ones where the algebra itself is identity and that contain no changed recursion points.
+     * hmap skips those parts of the type entirely.
+     */
+    public IntFunction<RewriteResult<?, ?>> foldChanged(final Algebra algebra) {
+        final BitSet changed = changedIndices(algebra);
+        final IntFunction<RewriteResult<?, ?>> fold = fold(algebra);
+        return index -> {
+            if (changed.get(index)) {
+                return fold.apply(index);
+            }
+            final RewriteResult<?, ?> result = algebra.apply(index);
+            return RewriteResult.create(viewUnchecked(result.view().type(), result.view().newType(), Functions.id()), result.recData());
+        };
+    }
+
+    public BitSet changedIndices(final Algebra algebra) {
+        final BitSet changed = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (!Functions.isIdentity(algebra.apply(i).view().function())) {
+                changed.set(i);
+            }
+        }
+        boolean updated = !changed.isEmpty();
+        while (updated) {
+            updated = false;
+            for (int i = changed.nextClearBit(0); i < size; i = changed.nextClearBit(i + 1)) {
+                if (references(i).intersects(changed)) {
+                    changed.set(i);
+                    updated = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * indices of the recursion points directly contained in the type at the given index
+     */
+    public BitSet references(final int index) {
+        BitSet[] result = references;
+        if (result == null) {
+            // RewriteResult.recData is not kept through composition, so record the recursion points hmap visits instead
+            result = new BitSet[size];
+            for (int i = 0; i < size; i++) {
+                final BitSet visited = new BitSet(size);
+                template.hmap(this, point -> {
+                    visited.set(point);
+                    final RecursivePoint.RecursivePointType<?> type = apply(point);
+                    return RewriteResult.create(viewUnchecked(type.unfold(), type, Functions.id()), new BitSet());
+                }).apply(i);
+                result[i] = visited;
+            }
+            references = result;
+        }
+        return result[index];
+    }
+
     @Override
     public RecursivePoint.RecursivePointType<?> apply(final int index) {
         if (index < 0) {
@@ -76,6 +76,10 @@ public final class Check implements TypeTemplate {
     @Override
     public IntFunction<RewriteResult<?, ?>> hmap(final TypeFamily family, final IntFunction<RewriteResult<?, ?>> function) {
         return index -> {
+            if (index != this.index) {
+                // values of a mismatched check can't exist, no need to build the element views
+                return RewriteResult.nop(apply(family).apply(index));
+            }
             final RewriteResult<?, ?> elementResult = element.hmap(family, function).apply(index);
             return cap(family, index, elementResult);
         };
@@ -130,7 +134,7 @@ public final class Check implements TypeTemplate {
 
         private <T> DataResult<Pair<A, T>> read(final DynamicOps<T> ops, final T input) {
             if (index != expectedIndex) {
-                return DataResult.error("Index mismatch: " + index + " != " + expectedIndex);
+                return DataResult.error(() -> "Index mismatch: " + index + " != " + expectedIndex);
             }
             return delegate.codec().decode(ops, input);
         }
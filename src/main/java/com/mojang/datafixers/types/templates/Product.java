@@ -25,7 +25,9 @@ import com.mojang.datafixers.types.families.TypeFamily;
 import com.mojang.datafixers.util.Either;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.RecordBuilder;
 
 import javax.annotation.Nullable;
 import java.util.Objects;
@@ -213,7 +215,44 @@ public final class Product implements TypeTemplate {
 
         @Override
         public Codec<Pair<F, G>> buildCodec() {
-            return Codec.pair(first.codec(), second.codec());
+            final Codec<Pair<F, G>> codec = Codec.pair(first.codec(), second.codec());
+            if (!encodesToFields()) {
+                return codec;
+            }
+            // fields are accumulated into one builder and merged into the prefix once, instead of copying the map for every field
+            return new Codec<Pair<F, G>>() {
+                @Override
+                public <T> DataResult<Pair<Pair<F, G>, T>> decode(final DynamicOps<T> ops, final T input) {
+                    return codec.decode(ops, input);
+                }
+
+                @Override
+                public <T> DataResult<T> encode(final Pair<F, G> input, final DynamicOps<T> ops, final T prefix) {
+                    return encodeFields(input, ops, ops.mapBuilder()).build(prefix);
+                }
+
+                @Override
+                public <T> RecordBuilder<T> encodeFields(final Pair<F, G> input, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+                    return ProductType.this.encodeFields(input, ops, builder);
+                }
+
+                @Override
+                public String toString() {
+                    return codec.toString();
+                }
+            };
+        }
+
+        @Override
+        public boolean encodesToFields() {
+            return first.encodesToFields() && second.encodesToFields();
+        }
+
+        @Override
+        public <T> RecordBuilder<T> encodeFields(final Pair<F, G> value, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+            // the second part goes first, fields of the first part override entries with the same key (like the remainder)
+            second.encodeFields(value.getSecond(), ops, builder);
+            return first.encodeFields(value.getFirst(), ops, builder);
         }
 
         @Override
@@ -14,9 +14,7 @@ import com.mojang.datafixers.types.Type;
 import com.mojang.datafixers.types.families.RecursiveTypeFamily;
 import com.mojang.datafixers.types.families.TypeFamily;
 import com.mojang.datafixers.util.Either;
-import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
-import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.Lifecycle;
 import org.apache.commons.lang3.ObjectUtils;
@@ -139,20 +137,10 @@ public final class RecursivePoint implements TypeTemplate {
             return type;
         }
 
-        /** needs to be lazy */
+        /** needs to be lazy, nested values go through the work stack of RecursiveCodec */
         @Override
         protected Codec<A> buildCodec() {
-            return new Codec<A>() {
-                @Override
-                public <T> DataResult<Pair<A, T>> decode(final DynamicOps<T> ops, final T input) {
-                    return unfold().codec().decode(ops, input).setLifecycle(Lifecycle.experimental());
-                }
-
-                @Override
-                public <T> DataResult<T> encode(final A input, final DynamicOps<T> ops, final T prefix) {
-                    return unfold().codec().encode(input, ops, prefix).setLifecycle(Lifecycle.experimental());
-                }
-            };
+            return Codec.<A>recursive(toString(), self -> unfold().codec()).withLifecycle(Lifecycle.experimental());
         }
 
         @Override
@@ -24,6 +24,7 @@ import com.mojang.datafixers.types.families.TypeFamily;
 import com.mojang.datafixers.util.Either;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.RecordBuilder;
 
 import javax.annotation.Nullable;
 import java.util.Objects;
@@ -215,6 +216,19 @@ public final class Sum implements TypeTemplate {
             return Codec.either(first.codec(), second.codec());
         }
 
+        @Override
+        public boolean encodesToFields() {
+            return first.encodesToFields() && second.encodesToFields();
+        }
+
+        @Override
+        public <T> RecordBuilder<T> encodeFields(final Either<F, G> value, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+            return value.map(
+                l -> first.encodeFields(l, ops, builder),
+                r -> second.encodeFields(r, ops, builder)
+            );
+        }
+
         @Override
         public String toString() {
             return "(" + first + " | " + second + ")";
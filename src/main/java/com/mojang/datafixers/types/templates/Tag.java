@@ -15,6 +15,8 @@ import com.mojang.datafixers.types.families.TypeFamily;
 import com.mojang.datafixers.util.Either;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.RecordBuilder;
 
 import javax.annotation.Nullable;
 import java.util.Objects;
@@ -133,6 +135,8 @@ public final class Tag implements TypeTemplate {
     public static final class TagType<A> extends Type<A> {
         protected final String name;
         protected final Type<A> element;
+        @Nullable
+        private volatile MapCodec<A> fieldCodec;
 
         public TagType(final String name, final Type<A> element) {
             this.name = name;
@@ -170,7 +174,25 @@ public final class Tag implements TypeTemplate {
 
         @Override
         protected Codec<A> buildCodec() {
-            return element.codec().fieldOf(name).codec();
+            return fieldCodec().codec();
+        }
+
+        @SuppressWarnings("ConstantConditions")
+        private MapCodec<A> fieldCodec() {
+            if (fieldCodec == null) {
+                fieldCodec = element.codec().fieldOf(name);
+            }
+            return fieldCodec;
+        }
+
+        @Override
+        public boolean encodesToFields() {
+            return true;
+        }
+
+        @Override
+        public <T> RecordBuilder<T> encodeFields(final A value, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+            return fieldCodec().encode(value, ops, builder);
         }
 
         @Override
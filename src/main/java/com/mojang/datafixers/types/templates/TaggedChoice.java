@@ -3,6 +3,8 @@
 package com.mojang.datafixers.types.templates;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
@@ -33,6 +35,7 @@ import com.mojang.datafixers.util.Either;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Decoder;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.Encoder;
 import com.mojang.serialization.codecs.KeyDispatchCodec;
@@ -40,14 +43,28 @@ import com.mojang.serialization.codecs.KeyDispatchCodec;
 import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public final class TaggedChoice<K> implements TypeTemplate {
+    /** Choices with at least this many alternatives are rewritten in parallel, see {@link #rewriteOn}. */
+    public static final int PARALLEL_REWRITE_THRESHOLD = 64;
+
+    private static final ThreadLocal<ForkJoinPool> REWRITE_POOL = new ThreadLocal<>();
+
     private final String name;
     private final Type<K> keyType;
     private final Map<K, TypeTemplate> templates;
@@ -86,15 +103,77 @@ public final class TaggedChoice<K> implements TypeTemplate {
     @Override
     public IntFunction<RewriteResult<?, ?>> hmap(final TypeFamily family, final IntFunction<RewriteResult<?, ?>> function) {
         return index -> {
+            final List<Pair<K, RewriteResult<?, ?>>> elementResults = rewriteAlternatives(templates.entrySet(),
+                e -> Pair.<K, RewriteResult<?, ?>>of(e.getKey(), e.getValue().hmap(family, function).apply(index)));
             RewriteResult<Pair<K, ?>, Pair<K, ?>> result = RewriteResult.nop((TaggedChoiceType<K>) apply(family).apply(index));
-            for (final Map.Entry<K, TypeTemplate> entry : templates.entrySet()) {
-                final RewriteResult<?, ?> elementResult = entry.getValue().hmap(family, function).apply(index);
-                result = TaggedChoiceType.elementResult(entry.getKey(), (TaggedChoiceType<K>) result.view().newType(), elementResult).compose(result);
+            for (final Pair<K, RewriteResult<?, ?>> elementResult : elementResults) {
+                result = TaggedChoiceType.elementResult(elementResult.getFirst(), (TaggedChoiceType<K>) result.view().newType(), elementResult.getSecond()).compose(result);
             }
             return result;
         };
     }
 
+    /**
+     * Runs the action, rewriting large choices in parallel on the executor if it is a {@link ForkJoinPool}, so that
+     * a thread waiting for its alternatives helps rewriting them. Other executors, and rewrites outside of this call,
+     * rewrite choices on the calling thread.
+     */
+    public static <T> T rewriteOn(final Executor executor, final Supplier<T> action) {
+        final ForkJoinPool previous = REWRITE_POOL.get();
+        REWRITE_POOL.set(executor instanceof ForkJoinPool ? (ForkJoinPool) executor : null);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                REWRITE_POOL.set(previous);
+            } else {
+                REWRITE_POOL.remove();
+            }
+        }
+    }
+
+    /**
+     * Rewrites a snapshot of the given alternatives, in parallel once there are enough of them.
+     * Results are in the iteration order of the source either way, so merging them stays deterministic.
+     */
+    private static <E, R> List<R> rewriteAlternatives(final Collection<E> alternatives, final Function<? super E, ? extends R> rewrite) {
+        final List<E> snapshot = ImmutableList.copyOf(alternatives);
+        final ForkJoinPool pool = REWRITE_POOL.get();
+        if (pool == null || snapshot.size() < PARALLEL_REWRITE_THRESHOLD) {
+            return snapshot.stream().<R>map(rewrite).collect(Collectors.toList());
+        }
+        final List<RewriteTask<E, R>> tasks = snapshot.stream().map(e -> new RewriteTask<E, R>(pool, e, rewrite)).collect(Collectors.toList());
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
+        return tasks.stream().map(ForkJoinTask::join).collect(Collectors.toList());
+    }
+
+    private static final class RewriteTask<E, R> extends RecursiveTask<R> {
+        private final ForkJoinPool pool;
+        private final E alternative;
+        private final Function<? super E, ? extends R> rewrite;
+
+        private RewriteTask(final ForkJoinPool pool, final E alternative, final Function<? super E, ? extends R> rewrite) {
+            this.pool = pool;
+            this.alternative = alternative;
+            this.rewrite = rewrite;
+        }
+
+        @Override
+        protected R compute() {
+            // nested choices fork onto the same pool
+            return rewriteOn(pool, () -> rewrite.apply(alternative));
+        }
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -132,12 +211,15 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
         @Override
         public RewriteResult<Pair<K, ?>, ?> all(final TypeRewriteRule rule, final boolean recurse, final boolean checkIndex) {
-            final Map<K, ? extends RewriteResult<?, ?>> results = types.entrySet().stream()
-                .map(e -> rule.rewrite(e.getValue()).map(v -> Pair.of(e.getKey(), v)))
+            final List<Optional<Pair<K, RewriteResult<?, ?>>>> rewrites = rewriteAlternatives(types.entrySet(),
+                e -> rule.rewrite(e.getValue()).map(v -> Pair.<K, RewriteResult<?, ?>>of(e.getKey(), v)));
+            final List<Pair<K, RewriteResult<?, ?>>> rewritten = rewrites.stream()
                 .filter(e -> e.isPresent() && !Objects.equals(e.get().getSecond().view().function(), Functions.id()))
                 .map(Optional::get)
-                .collect(Pair.toMap())
+                .collect(Collectors.toList())
                 ;
+            final Map<K, RewriteResult<?, ?>> results = Maps.newLinkedHashMap();
+            rewritten.forEach(p -> results.put(p.getFirst(), p.getSecond()));
 
             if (results.isEmpty()) {
                 return RewriteResult.nop(this);
@@ -180,23 +262,38 @@ public final class TaggedChoice<K> implements TypeTemplate {
         }
 
         @SuppressWarnings("unchecked")
-        private <V> DataResult<? extends Encoder<Pair<K, ?>>> encoder(final Pair<K, V> pair) {
-            return getCodec(pair.getFirst()).map(c -> ((Encoder<V>) c).comap(p -> (V) p.getSecond()));
+        private static <K, V> Encoder<Pair<K, ?>> encoder(final Codec<V> codec) {
+            return codec.comap(p -> (V) p.getSecond());
         }
 
+        /**
+         * The element decoders and encoders are looked up in tables built once per codec, so that dispatching a known key
+         * reuses the same successful result instead of wrapping the lookup again.
+         */
         @Override
         protected Codec<Pair<K, ?>> buildCodec() {
+            final ImmutableMap.Builder<K, DataResult<Decoder<Pair<K, ?>>>> decoders = ImmutableMap.builder();
+            final ImmutableMap.Builder<K, DataResult<Encoder<Pair<K, ?>>>> encoders = ImmutableMap.builder();
+            types.forEach((k, t) -> {
+                final Codec<?> codec = t.codec();
+                decoders.put(k, DataResult.success(codec.map(v -> Pair.of(k, v))));
+                encoders.put(k, DataResult.success(encoder(codec)));
+            });
+            final Map<K, DataResult<Decoder<Pair<K, ?>>>> decoderTable = decoders.build();
+            final Map<K, DataResult<Encoder<Pair<K, ?>>>> encoderTable = encoders.build();
+
             return KeyDispatchCodec.<K, Pair<K, ?>>unsafe(
                 name,
                 keyType.codec(),
                 p -> DataResult.success(p.getFirst()),
-                k -> getCodec(k).map(c -> c.map(v -> Pair.of(k, v))),
-                this::encoder
+                k -> lookup(decoderTable, k),
+                p -> lookup(encoderTable, p.getFirst())
             ).codec();
         }
 
-        private DataResult<? extends Codec<?>> getCodec(final K k) {
-            return Optional.ofNullable(types.get(k)).map(t -> DataResult.success(t.codec())).orElseGet(() -> DataResult.error("Unsupported key: " + k));
+        private static <K, R> DataResult<R> lookup(final Map<K, DataResult<R>> table, final K k) {
+            final DataResult<R> result = table.get(k);
+            return result != null ? result : DataResult.error(() -> "Unsupported key: " + k);
         }
 
         @Override
@@ -424,7 +521,7 @@ public final class TaggedChoice<K> implements TypeTemplate {
 
             @SuppressWarnings("unchecked")
             private <A, B> Pair<K, B> capRuleApply(final DynamicOps<?> ops, final Pair<K, ?> input, final RewriteResult<A, B> result) {
-                return input.mapSecond(v -> result.view().function().evalCached().apply(ops).apply((A) v));
+                return input.mapSecond(v -> result.view().function().evalCached(ops).apply((A) v));
             }
 
             @Override
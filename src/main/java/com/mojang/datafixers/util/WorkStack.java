@@ -0,0 +1,173 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.util;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Evaluates nested applications of recursive functions with a work stack on the heap, so that the depth of the data
+ * is not limited by the stack size of the thread.
+ * <p>
+ * The outermost application on a thread drives the evaluation. An application nested more than {@link #maxDepth()}
+ * levels inside the one the driver runs is not started: it unwinds to the driver, which pushes it on its work stack
+ * and runs it with a fresh depth. Then the driver runs the interrupted application again. From the first deferred
+ * application on, results are kept until the driver returns, keyed by function and input identity, so the rerun
+ * continues past the values that are done. The call stack holds at most {@code maxDepth} nested applications,
+ * however deep the data is.
+ * <p>
+ * Functions run through here must not have side effects, since an interrupted application is started again.
+ */
+public final class WorkStack {
+    public static final int DEFAULT_MAX_DEPTH = 16;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private static volatile int maxDepth = DEFAULT_MAX_DEPTH;
+
+    private WorkStack() {
+    }
+
+    /**
+     * Sets how many applications may be nested on the call stack before deeper ones are deferred to the work stack.
+     * Zero or less disables the work stack, applications then recurse on the stack of the calling thread.
+     */
+    public static void setMaxDepth(final int depth) {
+        maxDepth = depth;
+    }
+
+    public static int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Applies the function to the input. Applications with equal keys must run the same function, the key is usually
+     * the function itself, or the function and what else its result depends on.
+     */
+    public static <A, B> B apply(final Object key, final A input, final Function<? super A, ? extends B> function) {
+        final State state = STATE.get();
+        if (state.limit == 0) {
+            return state.drive(new Task<>(key, input, function));
+        }
+        return state.apply(key, input, function);
+    }
+
+    private static final class State {
+        /** max depth of the running driver, zero when there is none */
+        private int limit;
+        private int depth;
+        /** results of finished applications by key and input, only kept once an application has been deferred */
+        @Nullable
+        private Map<Object, Map<Object, Object>> results;
+
+        @SuppressWarnings("unchecked")
+        private <B> B drive(final Task<?, B> root) {
+            final int limit = maxDepth;
+            if (limit <= 0) {
+                return root.run();
+            }
+            this.limit = limit;
+            final Deque<Task<?, ?>> tasks = new ArrayDeque<>();
+            tasks.push(root);
+            try {
+                while (true) {
+                    final Task<?, ?> task = tasks.peek();
+                    if (task != root && finished(task.key, task.input)) {
+                        // deferred twice before it could run
+                        tasks.pop();
+                        continue;
+                    }
+                    final Object result;
+                    depth = 1;
+                    try {
+                        result = task.run();
+                    } catch (final Deferred e) {
+                        if (results == null) {
+                            results = new HashMap<>();
+                        }
+                        tasks.push(e.task);
+                        continue;
+                    }
+                    tasks.pop();
+                    if (task == root) {
+                        return (B) result;
+                    }
+                    remember(task.key, task.input, result);
+                }
+            } finally {
+                this.limit = 0;
+                depth = 0;
+                results = null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <A, B> B apply(final Object key, final A input, final Function<? super A, ? extends B> function) {
+            if (results != null) {
+                final Map<Object, Object> byInput = results.get(key);
+                if (byInput != null) {
+                    final Object result = byInput.get(input);
+                    if (result != null || byInput.containsKey(input)) {
+                        return (B) result;
+                    }
+                }
+            }
+            if (depth >= limit) {
+                throw new Deferred(new Task<>(key, input, function));
+            }
+            depth++;
+            try {
+                final B result = function.apply(input);
+                if (results != null) {
+                    remember(key, input, result);
+                }
+                return result;
+            } finally {
+                depth--;
+            }
+        }
+
+        private boolean finished(final Object key, final Object input) {
+            final Map<Object, Object> byInput = results.get(key);
+            return byInput != null && byInput.containsKey(input);
+        }
+
+        private void remember(final Object key, final Object input, @Nullable final Object result) {
+            results.computeIfAbsent(key, k -> new IdentityHashMap<>()).put(input, result);
+        }
+    }
+
+    private static final class Task<A, B> {
+        private final Object key;
+        private final A input;
+        private final Function<? super A, ? extends B> function;
+
+        private Task(final Object key, final A input, final Function<? super A, ? extends B> function) {
+            this.key = key;
+            this.input = input;
+            this.function = function;
+        }
+
+        private B run() {
+            return function.apply(input);
+        }
+    }
+
+    /**
+     * Unwinds a deferred application to the driver. It is an error rather than an exception, so that fix code
+     * catching exceptions does not swallow it, and it has no stack trace, which would only cost time.
+     */
+    private static final class Deferred extends Error {
+        private final Task<?, ?> task;
+
+        private Deferred(final Task<?, ?> task) {
+            super(null, null, false, false);
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import javax.annotation.Nullable;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Accumulator of record and list builders. While everything succeeds the value is updated in place and only the lifecycle is tracked,
+ * once an error is recorded the state falls back to a {@link DataResult} with the usual partial result semantics.
+ */
+final class BuilderState<R> {
+    private final Supplier<R> initial;
+    private R value;
+    private Lifecycle lifecycle = Lifecycle.stable();
+    @Nullable
+    private DataResult<R> failed;
+
+    BuilderState(final Supplier<R> initial) {
+        this.initial = initial;
+        value = initial.get();
+    }
+
+    public DataResult<R> get() {
+        return failed != null ? failed : DataResult.success(value, lifecycle);
+    }
+
+    public void set(final DataResult<R> result) {
+        if (result.error().isPresent()) {
+            failed = result;
+        } else {
+            failed = null;
+            value = result.result().get();
+            lifecycle = result.lifecycle();
+        }
+    }
+
+    public void map(final UnaryOperator<R> function) {
+        if (failed == null) {
+            value = function.apply(value);
+        } else {
+            failed = failed.map(function);
+        }
+    }
+
+    public <V> void apply(final DataResult<V> element, final BiFunction<R, V, R> function) {
+        if (failed == null && !element.error().isPresent()) {
+            value = function.apply(value, element.result().get());
+            lifecycle = lifecycle.add(element.lifecycle());
+        } else {
+            set(get().apply2stable(function, element));
+        }
+    }
+
+    public void withErrorsFrom(final DataResult<?> result) {
+        if (failed == null && !result.error().isPresent()) {
+            lifecycle = lifecycle.add(result.lifecycle());
+        } else {
+            set(get().flatMap(v -> result.map(r -> v)));
+        }
+    }
+
+    public void setLifecycle(final Lifecycle lifecycle) {
+        if (failed == null) {
+            this.lifecycle = lifecycle;
+        } else {
+            failed = failed.setLifecycle(lifecycle);
+        }
+    }
+
+    public void mapError(final UnaryOperator<String> onError) {
+        if (failed != null) {
+            failed = failed.mapError(onError);
+        }
+    }
+
+    /**
+     * Builds the final result from the accumulated value and starts over with a fresh one.
+     */
+    public <T> DataResult<T> build(final Function<R, DataResult<T>> build) {
+        final DataResult<T> result;
+        if (failed == null) {
+            final DataResult<T> built = build.apply(value);
+            result = built.setLifecycle(lifecycle.add(built.lifecycle()));
+        } else {
+            result = failed.flatMap(build);
+        }
+        value = initial.get();
+        lifecycle = Lifecycle.stable();
+        failed = null;
+        return result;
+    }
+}
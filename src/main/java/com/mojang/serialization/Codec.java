@@ -15,6 +15,7 @@ import com.mojang.serialization.codecs.OptionalFieldCodec;
 import com.mojang.serialization.codecs.PairCodec;
 import com.mojang.serialization.codecs.PairMapCodec;
 import com.mojang.serialization.codecs.PrimitiveCodec;
+import com.mojang.serialization.codecs.RecursiveCodec;
 import com.mojang.serialization.codecs.SimpleMapCodec;
 import com.mojang.serialization.codecs.UnboundedMapCodec;
 
@@ -147,6 +148,13 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
         return new OptionalFieldCodec<>(name, elementCodec);
     }
 
+    /**
+     * Builds a codec that can refer to itself, for values nested in values of the same type, see {@link RecursiveCodec}.
+     */
+    static <A> Codec<A> recursive(final String name, final Function<Codec<A>, Codec<A>> wrapped) {
+        return new RecursiveCodec<>(name, wrapped);
+    }
+
     default Codec<List<A>> listOf() {
         return list(this);
     }
@@ -351,7 +359,7 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
             if (value.compareTo(minInclusive) >= 0 && value.compareTo(maxInclusive) <= 0) {
                 return DataResult.success(value);
             }
-            return DataResult.error("Value " + value + " outside of range [" + minInclusive + ":" + maxInclusive + "]", value);
+            return DataResult.error(() -> "Value " + value + " outside of range [" + minInclusive + ":" + maxInclusive + "]", value);
         };
     }
 
@@ -392,8 +400,7 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
         @Override
         public <T> DataResult<Byte> read(final DynamicOps<T> ops, final T input) {
             return ops
-                .getNumberValue(input)
-                .map(Number::byteValue);
+                .getByteValue(input);
         }
 
         @Override
@@ -411,8 +418,7 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
         @Override
         public <T> DataResult<Short> read(final DynamicOps<T> ops, final T input) {
             return ops
-                .getNumberValue(input)
-                .map(Number::shortValue);
+                .getShortValue(input);
         }
 
         @Override
@@ -429,9 +435,12 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
     PrimitiveCodec<Integer> INT = new PrimitiveCodec<Integer>() {
         @Override
         public <T> DataResult<Integer> read(final DynamicOps<T> ops, final T input) {
-            return ops
-                .getNumberValue(input)
-                .map(Number::intValue);
+            // reads without boxing; a result equal to the first default is checked with a second one
+            final int value = ops.getIntValue(input, 0);
+            if (value == 0 && ops.getIntValue(input, 1) == 1) {
+                return ops.getIntValue(input);
+            }
+            return DataResult.success(value);
         }
 
         @Override
@@ -448,9 +457,11 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
     PrimitiveCodec<Long> LONG = new PrimitiveCodec<Long>() {
         @Override
         public <T> DataResult<Long> read(final DynamicOps<T> ops, final T input) {
-            return ops
-                .getNumberValue(input)
-                .map(Number::longValue);
+            final long value = ops.getLongValue(input, 0);
+            if (value == 0 && ops.getLongValue(input, 1) == 1) {
+                return ops.getLongValue(input);
+            }
+            return DataResult.success(value);
         }
 
         @Override
@@ -467,9 +478,11 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
     PrimitiveCodec<Float> FLOAT = new PrimitiveCodec<Float>() {
         @Override
         public <T> DataResult<Float> read(final DynamicOps<T> ops, final T input) {
-            return ops
-                .getNumberValue(input)
-                .map(Number::floatValue);
+            final float value = ops.getFloatValue(input, 0);
+            if (value == 0 && ops.getFloatValue(input, 1) == 1) {
+                return ops.getFloatValue(input);
+            }
+            return DataResult.success(value);
         }
 
         @Override
@@ -486,9 +499,11 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
     PrimitiveCodec<Double> DOUBLE = new PrimitiveCodec<Double>() {
         @Override
         public <T> DataResult<Double> read(final DynamicOps<T> ops, final T input) {
-            return ops
-                .getNumberValue(input)
-                .map(Number::doubleValue);
+            final double value = ops.getDoubleValue(input, 0);
+            if (value == 0 && ops.getDoubleValue(input, 1) == 1) {
+                return ops.getDoubleValue(input);
+            }
+            return DataResult.success(value);
         }
 
         @Override
@@ -597,7 +612,7 @@ public interface Codec<A> extends Encoder<A>, Decoder<A> {
             return toMap.result().map(DataResult::success).orElseGet(() -> {
                 final DataResult<T> toList = ops.getStream(casted).flatMap(stream -> ops.mergeToList(prefix, stream.collect(Collectors.toList())));
                 return toList.result().map(DataResult::success).orElseGet(() ->
-                    DataResult.error("Don't know how to merge " + prefix + " and " + casted, prefix, Lifecycle.experimental())
+                    DataResult.error(() -> "Don't know how to merge " + prefix + " and " + casted, prefix, Lifecycle.experimental())
                 );
             });
         }
@@ -0,0 +1,71 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes records as lists instead of maps, like {@link JsonOps#COMPRESSED} does for any ops. Each {@link MapCodec}
+ * puts its fields at the positions of its {@link MapCodec#keys}, so field names are not stored at all. Maps that are
+ * not records, such as {@link Codec#unboundedMap}, are still written as maps.
+ * <p>
+ * Fields missing from a record are written as {@link #empty()}, which records read back as missing, other lists are
+ * read as they are. The positions come from the codec, so data can only be read by the codec that wrote it, or one
+ * that only appended keys.
+ * <p>
+ * Compressors are cached per ops, and ops wrapping equal delegates are equal, so they share the cache.
+ */
+public class CompressingOps<T> extends DelegatingOps<T> {
+    protected CompressingOps(final DynamicOps<T> delegate) {
+        super(delegate);
+    }
+
+    public static <T> DynamicOps<T> of(final DynamicOps<T> ops) {
+        if (ops.compressMaps()) {
+            return ops;
+        }
+        return new CompressingOps<>(ops);
+    }
+
+    @Override
+    public boolean compressMaps() {
+        return true;
+    }
+
+    private T orEmpty(final T value) {
+        return value == null ? delegate.empty() : value;
+    }
+
+    @Override
+    public DataResult<T> mergeToList(final T list, final T value) {
+        return delegate.mergeToList(list, orEmpty(value));
+    }
+
+    @Override
+    public DataResult<T> mergeToList(final T list, final List<T> values) {
+        if (!values.contains(null)) {
+            return delegate.mergeToList(list, values);
+        }
+        final List<T> elements = new ArrayList<>(values.size());
+        for (final T value : values) {
+            elements.add(orEmpty(value));
+        }
+        return delegate.mergeToList(list, elements);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o || o != null && o.getClass() == getClass() && delegate.equals(((CompressingOps<?>) o).delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Compressing[" + delegate + "]";
+    }
+}
@@ -2,16 +2,19 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
-
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class CompressorHolder implements Compressable {
-    private final Map<DynamicOps<?>, KeyCompressor<?>> compressors = new Object2ObjectArrayMap<>();
+    private final Map<DynamicOps<?>, KeyCompressor<?>> compressors = new ConcurrentHashMap<>();
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> KeyCompressor<T> compressor(final DynamicOps<T> ops) {
+        final KeyCompressor<?> compressor = compressors.get(ops);
+        if (compressor != null) {
+            return (KeyCompressor<T>) compressor;
+        }
         return (KeyCompressor<T>) compressors.computeIfAbsent(ops, k -> new KeyCompressor<>(ops, keys(ops)));
     }
 }
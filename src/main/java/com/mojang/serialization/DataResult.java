@@ -7,7 +7,9 @@ import com.mojang.datafixers.kinds.Applicative;
 import com.mojang.datafixers.kinds.K1;
 import com.mojang.datafixers.util.Either;
 import com.mojang.datafixers.util.Function3;
+import com.mojang.datafixers.util.Unit;
 
+import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiFunction;
@@ -27,7 +29,17 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
         return (DataResult<R>) box;
     }
 
-    private final Either<R, PartialResult<R>> result;
+    private static final DataResult<Unit> UNIT_EXPERIMENTAL = new DataResult<>(Unit.INSTANCE, null, Lifecycle.experimental());
+    private static final DataResult<Unit> UNIT_STABLE = new DataResult<>(Unit.INSTANCE, null, Lifecycle.stable());
+    private static final DataResult<Boolean> TRUE = new DataResult<>(Boolean.TRUE, null, Lifecycle.experimental());
+    private static final DataResult<Boolean> FALSE = new DataResult<>(Boolean.FALSE, null, Lifecycle.experimental());
+
+    /** only meaningful when {@link #error} is null */
+    @Nullable
+    private final R value;
+    /** null on success, so that a successful result is a single object */
+    @Nullable
+    private final PartialResult<R> error;
     private final Lifecycle lifecycle;
 
     public static <R> DataResult<R> success(final R result) {
@@ -42,37 +54,82 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
         return error(message, Lifecycle.experimental());
     }
 
+    /**
+     * Like {@link #error(String, Object)}, but the message is only built when it is read.
+     */
+    public static <R> DataResult<R> error(final Supplier<String> message, final R partialResult) {
+        return error(message, partialResult, Lifecycle.experimental());
+    }
+
+    public static <R> DataResult<R> error(final Supplier<String> message) {
+        return error(message, Lifecycle.experimental());
+    }
+
+    @SuppressWarnings("unchecked")
     public static <R> DataResult<R> success(final R result, final Lifecycle experimental) {
-        return new DataResult<>(Either.left(result), experimental);
+        if (result == Unit.INSTANCE) {
+            if (experimental == Lifecycle.experimental()) {
+                return (DataResult<R>) UNIT_EXPERIMENTAL;
+            }
+            if (experimental == Lifecycle.stable()) {
+                return (DataResult<R>) UNIT_STABLE;
+            }
+        } else if (result instanceof Boolean && experimental == Lifecycle.experimental()) {
+            return (DataResult<R>) ((Boolean) result ? TRUE : FALSE);
+        }
+        return new DataResult<>(result, null, experimental);
     }
 
     public static <R> DataResult<R> error(final String message, final R partialResult, final Lifecycle lifecycle) {
-        return new DataResult<>(Either.right(new PartialResult<>(message, Optional.of(partialResult))), lifecycle);
+        return new DataResult<>(null, new PartialResult<>(message, Optional.of(partialResult)), lifecycle);
     }
 
     public static <R> DataResult<R> error(final String message, final Lifecycle lifecycle) {
-        return new DataResult<>(Either.right(new PartialResult<>(message, Optional.empty())), lifecycle);
+        return new DataResult<>(null, new PartialResult<>(message, Optional.empty()), lifecycle);
+    }
+
+    public static <R> DataResult<R> error(final Supplier<String> message, final R partialResult, final Lifecycle lifecycle) {
+        return new DataResult<>(null, new PartialResult<>(message, Optional.of(partialResult)), lifecycle);
+    }
+
+    public static <R> DataResult<R> error(final Supplier<String> message, final Lifecycle lifecycle) {
+        return new DataResult<>(null, new PartialResult<>(message, Optional.empty()), lifecycle);
     }
 
     public static <K, V> Function<K, DataResult<V>> partialGet(final Function<K, V> partialGet, final Supplier<String> errorPrefix) {
-        return name -> Optional.ofNullable(partialGet.apply(name)).map(DataResult::success).orElseGet(() -> error(errorPrefix.get() + name));
+        return name -> Optional.ofNullable(partialGet.apply(name)).map(DataResult::success).orElseGet(() -> error(() -> errorPrefix.get() + name));
     }
 
-    private static <R> DataResult<R> create(final Either<R, PartialResult<R>> result, final Lifecycle lifecycle) {
-        return new DataResult<>(result, lifecycle);
+    private static <R> DataResult<R> create(final PartialResult<R> error, final Lifecycle lifecycle) {
+        return new DataResult<>(null, error, lifecycle);
     }
 
-    private DataResult(final Either<R, PartialResult<R>> result, final Lifecycle lifecycle) {
-        this.result = result;
+    private DataResult(@Nullable final R value, @Nullable final PartialResult<R> error, final Lifecycle lifecycle) {
+        this.value = value;
+        this.error = error;
         this.lifecycle = lifecycle;
     }
 
     public Either<R, PartialResult<R>> get() {
-        return result;
+        return error == null ? Either.left(value) : Either.right(error);
     }
 
     public Optional<R> result() {
-        return result.left();
+        return error == null ? Optional.of(value) : Optional.empty();
+    }
+
+    /**
+     * Whether this is a success, for callers in this package that read {@link #value()} without an {@link Optional}.
+     */
+    boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * The value of a success, only meaningful if {@link #isSuccess()}.
+     */
+    R value() {
+        return value;
     }
 
     public Lifecycle lifecycle() {
@@ -80,92 +137,89 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
     }
 
     public Optional<R> resultOrPartial(final Consumer<String> onError) {
-        return result.map(
-            Optional::of,
-            r -> {
-                onError.accept(r.message);
-                return r.partialResult;
-            }
-        );
+        if (error == null) {
+            return Optional.of(value);
+        }
+        onError.accept(error.message());
+        return error.partialResult;
     }
 
     public R getOrThrow(final boolean allowPartial, final Consumer<String> onError) {
-        return result.map(
-            l -> l,
-            r -> {
-                onError.accept(r.message);
-                if (allowPartial && r.partialResult.isPresent()) {
-                    return r.partialResult.get();
-                }
-                throw new RuntimeException(r.message);
-            }
-        );
+        if (error == null) {
+            return value;
+        }
+        onError.accept(error.message());
+        if (allowPartial && error.partialResult.isPresent()) {
+            return error.partialResult.get();
+        }
+        throw new RuntimeException(error.message());
     }
 
     public Optional<PartialResult<R>> error() {
-        return result.right();
+        return Optional.ofNullable(error);
     }
 
+    @SuppressWarnings("unchecked")
     public <T> DataResult<T> map(final Function<? super R, ? extends T> function) {
-        return create(result.mapBoth(
-            function,
-            r -> new PartialResult<>(r.message, r.partialResult.map(function))
-        ), lifecycle);
+        if (error == null) {
+            final T newValue = function.apply(value);
+            if (newValue == value) {
+                return (DataResult<T>) this;
+            }
+            return success(newValue, lifecycle);
+        }
+        return create(error.map(function), lifecycle);
     }
 
     public DataResult<R> promotePartial(final Consumer<String> onError) {
-        return result.map(
-            r -> new DataResult<>(Either.left(r), lifecycle),
-            r -> {
-                onError.accept(r.message);
-                return r.partialResult
-                    .map(pr -> new DataResult<>(Either.left(pr), lifecycle))
-                    .orElseGet(() -> create(Either.right(r), lifecycle));
-            }
-        );
+        if (error == null) {
+            return this;
+        }
+        onError.accept(error.message());
+        return error.partialResult
+            .map(pr -> new DataResult<>(pr, null, lifecycle))
+            .orElseGet(() -> create(error, lifecycle));
     }
 
-    private static String appendMessages(final String first, final String second) {
-        return first + "; " + second;
+    private static Supplier<String> appendMessages(final PartialResult<?> first, final PartialResult<?> second) {
+        return () -> first.message() + "; " + second.message();
     }
 
     /**
      * Applies the function to either full or partial result, in case of partial concatenates errors.
      */
     public <R2> DataResult<R2> flatMap(final Function<? super R, ? extends DataResult<R2>> function) {
-        return result.map(
-            l -> {
-                final DataResult<R2> second = function.apply(l);
-                return create(second.get(), lifecycle.add(second.lifecycle));
-            },
-            r -> r.partialResult
-                .map(value -> {
-                    final DataResult<R2> second = function.apply(value);
-                    return create(Either.right(second.get().map(
-                        l2 -> new PartialResult<>(r.message, Optional.of(l2)),
-                        r2 -> new PartialResult<>(appendMessages(r.message, r2.message), r2.partialResult)
-                    )), lifecycle.add(second.lifecycle));
-                })
-                .orElseGet(
-                    () -> create(Either.right(new PartialResult<>(r.message, Optional.empty())), lifecycle)
-                )
-        );
+        if (error == null) {
+            final DataResult<R2> second = function.apply(value);
+            return second.setLifecycle(lifecycle.add(second.lifecycle));
+        }
+        if (!error.partialResult.isPresent()) {
+            return create(new PartialResult<>(error::message, Optional.empty()), lifecycle);
+        }
+        final DataResult<R2> second = function.apply(error.partialResult.get());
+        final PartialResult<R2> newError = second.error == null
+            ? new PartialResult<>(error::message, Optional.of(second.value))
+            : new PartialResult<>(appendMessages(error, second.error), second.error.partialResult);
+        return create(newError, lifecycle.add(second.lifecycle));
     }
 
     public <R2> DataResult<R2> ap(final DataResult<Function<R, R2>> functionResult) {
-        return create(result.map(
-            arg -> functionResult.result.mapBoth(
-                func -> func.apply(arg),
-                funcError -> new PartialResult<>(funcError.message, funcError.partialResult.map(f -> f.apply(arg)))
-            ),
-            argError -> Either.right(functionResult.result.map(
-                func -> new PartialResult<>(argError.message, argError.partialResult.map(func)),
-                funcError -> new PartialResult<>(
-                    appendMessages(argError.message, funcError.message),
-                    argError.partialResult.flatMap(a -> funcError.partialResult.map(f -> f.apply(a)))
-                )
-            ))
-        ), lifecycle.add(functionResult.lifecycle));
+        final Lifecycle newLifecycle = lifecycle.add(functionResult.lifecycle);
+        if (error == null) {
+            if (functionResult.error == null) {
+                return success(functionResult.value.apply(value), newLifecycle);
+            }
+            final PartialResult<Function<R, R2>> funcError = functionResult.error;
+            return create(new PartialResult<>(funcError::message, funcError.partialResult.map(f -> f.apply(value))), newLifecycle);
+        }
+        if (functionResult.error == null) {
+            return create(new PartialResult<>(error::message, error.partialResult.map(functionResult.value)), newLifecycle);
+        }
+        final PartialResult<Function<R, R2>> funcError = functionResult.error;
+        return create(new PartialResult<>(
+            appendMessages(error, funcError),
+            error.partialResult.flatMap(a -> funcError.partialResult.map(f -> f.apply(a)))
+        ), newLifecycle);
     }
 
     public <R2, S> DataResult<S> apply2(final BiFunction<R, R2, S> function, final DataResult<R2> second) {
@@ -173,6 +227,9 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
     }
 
     public <R2, S> DataResult<S> apply2stable(final BiFunction<R, R2, S> function, final DataResult<R2> second) {
+        if (error == null && second.error == null) {
+            return success(function.apply(value, second.value), Lifecycle.stable().add(lifecycle).add(second.lifecycle));
+        }
         final Applicative<Mu, Instance.Mu> instance = instance();
         final DataResult<BiFunction<R, R2, S>> f = unbox(instance.point(function)).setLifecycle(Lifecycle.stable());
         return unbox(instance.ap2(f, this, second));
@@ -183,23 +240,36 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
     }
 
     public DataResult<R> setPartial(final Supplier<R> partial) {
-        return create(result.mapRight(r -> new PartialResult<>(r.message, Optional.of(partial.get()))), lifecycle);
+        if (error == null) {
+            return this;
+        }
+        return create(new PartialResult<>(error::message, Optional.of(partial.get())), lifecycle);
     }
 
     public DataResult<R> setPartial(final R partial) {
-        return create(result.mapRight(r -> new PartialResult<>(r.message, Optional.of(partial))), lifecycle);
+        if (error == null) {
+            return this;
+        }
+        return create(new PartialResult<>(error::message, Optional.of(partial)), lifecycle);
     }
 
     public DataResult<R> mapError(final UnaryOperator<String> function) {
-        return create(result.mapRight(r -> new PartialResult<>(function.apply(r.message), r.partialResult)), lifecycle);
+        if (error == null) {
+            return this;
+        }
+        final PartialResult<R> error = this.error;
+        return create(new PartialResult<>(() -> function.apply(error.message()), error.partialResult), lifecycle);
     }
 
     public DataResult<R> setLifecycle(final Lifecycle lifecycle) {
-        return create(result, lifecycle);
+        if (this.lifecycle == lifecycle) {
+            return this;
+        }
+        return new DataResult<>(value, error, lifecycle);
     }
 
     public DataResult<R> addLifecycle(final Lifecycle lifecycle) {
-        return create(result, this.lifecycle.add(lifecycle));
+        return setLifecycle(this.lifecycle.add(lifecycle));
     }
 
     public static Instance instance() {
@@ -215,42 +285,58 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
             return false;
         }
         final DataResult<?> that = (DataResult<?>) o;
-        return Objects.equals(result, that.result);
+        return Objects.equals(get(), that.get());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(result);
+        return Objects.hash(get());
     }
 
     @Override
     public String toString() {
-        return "DataResult[" + result + ']';
+        return "DataResult[" + get() + ']';
     }
 
     public static class PartialResult<R> {
-        private final String message;
+        private final Supplier<String> message;
         private final Optional<R> partialResult;
+        @Nullable
+        private String renderedMessage;
 
         public PartialResult(final String message, final Optional<R> partialResult) {
+            this.message = () -> message;
+            this.partialResult = partialResult;
+            renderedMessage = message;
+        }
+
+        /**
+         * The message is rendered on the first call to {@link #message()}, failures that are never looked at stay cheap.
+         */
+        public PartialResult(final Supplier<String> message, final Optional<R> partialResult) {
             this.message = message;
             this.partialResult = partialResult;
         }
 
         public <R2> PartialResult<R2> map(final Function<? super R, ? extends R2> function) {
-            return new PartialResult<>(message, partialResult.map(function));
+            return new PartialResult<>(this::message, partialResult.map(function));
         }
 
         public <R2> PartialResult<R2> flatMap(final Function<R, PartialResult<R2>> function) {
             if (partialResult.isPresent()) {
                 final PartialResult<R2> result = function.apply(partialResult.get());
-                return new PartialResult<>(appendMessages(message, result.message), result.partialResult);
+                return new PartialResult<>(appendMessages(this, result), result.partialResult);
             }
-            return new PartialResult<>(message, Optional.empty());
+            return new PartialResult<>(this::message, Optional.empty());
         }
 
         public String message() {
-            return message;
+            String rendered = renderedMessage;
+            if (rendered == null) {
+                rendered = message.get();
+                renderedMessage = rendered;
+            }
+            return rendered;
         }
 
         @Override
@@ -262,17 +348,17 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
                 return false;
             }
             final PartialResult<?> that = (PartialResult<?>) o;
-            return Objects.equals(message, that.message) && Objects.equals(partialResult, that.partialResult);
+            return Objects.equals(message(), that.message()) && Objects.equals(partialResult, that.partialResult);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(message, partialResult);
+            return Objects.hash(message(), partialResult);
         }
 
         @Override
         public String toString() {
-            return "DynamicException[" + message + ' ' + partialResult + ']';
+            return "DynamicException[" + message() + ' ' + partialResult + ']';
         }
     }
 
@@ -308,14 +394,14 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
             final DataResult<B> rb = unbox(b);
 
             // for less recursion
-            if (fr.result.left().isPresent()
-                && ra.result.left().isPresent()
-                && rb.result.left().isPresent()
+            if (fr.error == null
+                && ra.error == null
+                && rb.error == null
             ) {
-                return new DataResult<>(Either.left(fr.result.left().get().apply(
-                    ra.result.left().get(),
-                    rb.result.left().get()
-                )), fr.lifecycle.add(ra.lifecycle).add(rb.lifecycle));
+                return success(fr.value.apply(
+                    ra.value,
+                    rb.value
+                ), fr.lifecycle.add(ra.lifecycle).add(rb.lifecycle));
             }
 
             return Applicative.super.ap2(func, a, b);
@@ -329,16 +415,16 @@ public class DataResult<R> implements App<DataResult.Mu, R> {
             final DataResult<T3> dr3 = unbox(t3);
 
             // for less recursion
-            if (fr.result.left().isPresent()
-                && dr1.result.left().isPresent()
-                && dr2.result.left().isPresent()
-                && dr3.result.left().isPresent()
+            if (fr.error == null
+                && dr1.error == null
+                && dr2.error == null
+                && dr3.error == null
             ) {
-                return new DataResult<>(Either.left(fr.result.left().get().apply(
-                    dr1.result.left().get(),
-                    dr2.result.left().get(),
-                    dr3.result.left().get()
-                )), fr.lifecycle.add(dr1.lifecycle).add(dr2.lifecycle).add(dr3.lifecycle));
+                return success(fr.value.apply(
+                    dr1.value,
+                    dr2.value,
+                    dr3.value
+                ), fr.lifecycle.add(dr1.lifecycle).add(dr2.lifecycle).add(dr3.lifecycle));
             }
 
             return Applicative.super.ap3(func, t1, t2, t3);
@@ -0,0 +1,337 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.mojang.datafixers.util.Pair;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Forwards every operation to another ops, including the ones with default implementations, so the delegate keeps
+ * its optimized versions. Subclasses override what they change. Builders and visitors are the delegate's.
+ */
+public abstract class DelegatingOps<T> implements DynamicOps<T> {
+    protected final DynamicOps<T> delegate;
+
+    protected DelegatingOps(final DynamicOps<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public T empty() {
+        return delegate.empty();
+    }
+
+    @Override
+    public T emptyMap() {
+        return delegate.emptyMap();
+    }
+
+    @Override
+    public T emptyList() {
+        return delegate.emptyList();
+    }
+
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final T input) {
+        return delegate.convertTo(outOps, input);
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final T input) {
+        return delegate.getNumberValue(input);
+    }
+
+    @Override
+    public DataResult<Byte> getByteValue(final T input) {
+        return delegate.getByteValue(input);
+    }
+
+    @Override
+    public DataResult<Short> getShortValue(final T input) {
+        return delegate.getShortValue(input);
+    }
+
+    @Override
+    public DataResult<Integer> getIntValue(final T input) {
+        return delegate.getIntValue(input);
+    }
+
+    @Override
+    public DataResult<Long> getLongValue(final T input) {
+        return delegate.getLongValue(input);
+    }
+
+    @Override
+    public DataResult<Float> getFloatValue(final T input) {
+        return delegate.getFloatValue(input);
+    }
+
+    @Override
+    public DataResult<Double> getDoubleValue(final T input) {
+        return delegate.getDoubleValue(input);
+    }
+
+    @Override
+    public int getIntValue(final T input, final int defaultValue) {
+        return delegate.getIntValue(input, defaultValue);
+    }
+
+    @Override
+    public long getLongValue(final T input, final long defaultValue) {
+        return delegate.getLongValue(input, defaultValue);
+    }
+
+    @Override
+    public float getFloatValue(final T input, final float defaultValue) {
+        return delegate.getFloatValue(input, defaultValue);
+    }
+
+    @Override
+    public double getDoubleValue(final T input, final double defaultValue) {
+        return delegate.getDoubleValue(input, defaultValue);
+    }
+
+    @Override
+    public T createNumeric(final Number i) {
+        return delegate.createNumeric(i);
+    }
+
+    @Override
+    public T createByte(final byte value) {
+        return delegate.createByte(value);
+    }
+
+    @Override
+    public T createShort(final short value) {
+        return delegate.createShort(value);
+    }
+
+    @Override
+    public T createInt(final int value) {
+        return delegate.createInt(value);
+    }
+
+    @Override
+    public T createLong(final long value) {
+        return delegate.createLong(value);
+    }
+
+    @Override
+    public T createFloat(final float value) {
+        return delegate.createFloat(value);
+    }
+
+    @Override
+    public T createDouble(final double value) {
+        return delegate.createDouble(value);
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final T input) {
+        return delegate.getBooleanValue(input);
+    }
+
+    @Override
+    public T createBoolean(final boolean value) {
+        return delegate.createBoolean(value);
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final T input) {
+        return delegate.getStringValue(input);
+    }
+
+    @Override
+    public T createString(final String value) {
+        return delegate.createString(value);
+    }
+
+    @Override
+    public DataResult<T> mergeToList(final T list, final T value) {
+        return delegate.mergeToList(list, value);
+    }
+
+    @Override
+    public DataResult<T> mergeToList(final T list, final List<T> values) {
+        return delegate.mergeToList(list, values);
+    }
+
+    @Override
+    public DataResult<T> mergeToMap(final T map, final T key, final T value) {
+        return delegate.mergeToMap(map, key, value);
+    }
+
+    @Override
+    public DataResult<T> mergeToMap(final T map, final Map<T, T> values) {
+        return delegate.mergeToMap(map, values);
+    }
+
+    @Override
+    public DataResult<T> mergeToMap(final T map, final MapLike<T> values) {
+        return delegate.mergeToMap(map, values);
+    }
+
+    @Override
+    public DataResult<T> mergeToPrimitive(final T prefix, final T value) {
+        return delegate.mergeToPrimitive(prefix, value);
+    }
+
+    @Override
+    public DataResult<Stream<Pair<T, T>>> getMapValues(final T input) {
+        return delegate.getMapValues(input);
+    }
+
+    @Override
+    public DataResult<Consumer<BiConsumer<T, T>>> getMapEntries(final T input) {
+        return delegate.getMapEntries(input);
+    }
+
+    @Override
+    public T createMap(final Stream<Pair<T, T>> map) {
+        return delegate.createMap(map);
+    }
+
+    @Override
+    public DataResult<MapLike<T>> getMap(final T input) {
+        return delegate.getMap(input);
+    }
+
+    @Override
+    public T createMap(final Map<T, T> map) {
+        return delegate.createMap(map);
+    }
+
+    @Override
+    public DataResult<Stream<T>> getStream(final T input) {
+        return delegate.getStream(input);
+    }
+
+    @Override
+    public DataResult<Consumer<Consumer<T>>> getList(final T input) {
+        return delegate.getList(input);
+    }
+
+    @Override
+    public T createList(final Stream<T> input) {
+        return delegate.createList(input);
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final T input) {
+        return delegate.getByteBuffer(input);
+    }
+
+    @Override
+    public T createByteList(final ByteBuffer input) {
+        return delegate.createByteList(input);
+    }
+
+    @Override
+    public DataResult<int[]> getIntArray(final T input) {
+        return delegate.getIntArray(input);
+    }
+
+    @Override
+    public DataResult<IntStream> getIntStream(final T input) {
+        return delegate.getIntStream(input);
+    }
+
+    @Override
+    public T createIntList(final IntStream input) {
+        return delegate.createIntList(input);
+    }
+
+    @Override
+    public DataResult<long[]> getLongArray(final T input) {
+        return delegate.getLongArray(input);
+    }
+
+    @Override
+    public DataResult<LongStream> getLongStream(final T input) {
+        return delegate.getLongStream(input);
+    }
+
+    @Override
+    public T createLongList(final LongStream input) {
+        return delegate.createLongList(input);
+    }
+
+    @Override
+    public T remove(final T input, final String key) {
+        return delegate.remove(input, key);
+    }
+
+    @Override
+    public boolean compressMaps() {
+        return delegate.compressMaps();
+    }
+
+    @Override
+    public DataResult<T> get(final T input, final String key) {
+        return delegate.get(input, key);
+    }
+
+    @Override
+    public DataResult<T> getGeneric(final T input, final T key) {
+        return delegate.getGeneric(input, key);
+    }
+
+    @Override
+    public T set(final T input, final String key, final T value) {
+        return delegate.set(input, key, value);
+    }
+
+    @Override
+    public T update(final T input, final String key, final Function<T, T> function) {
+        return delegate.update(input, key, function);
+    }
+
+    @Override
+    public T updateGeneric(final T input, final T key, final Function<T, T> function) {
+        return delegate.updateGeneric(input, key, function);
+    }
+
+    @Override
+    public ListBuilder<T> listBuilder() {
+        return delegate.listBuilder();
+    }
+
+    @Override
+    public RecordBuilder<T> mapBuilder() {
+        return delegate.mapBuilder();
+    }
+
+    @Override
+    public <U> U visit(final T input, final ValueVisitor<U> visitor) {
+        return delegate.visit(input, visitor);
+    }
+
+    @Override
+    public ValueVisitor<T> visitor() {
+        return delegate.visitor();
+    }
+
+    @Override
+    public <U> U convertList(final DynamicOps<U> outOps, final T input) {
+        return delegate.convertList(outOps, input);
+    }
+
+    @Override
+    public <U> U convertMap(final DynamicOps<U> outOps, final T input) {
+        return delegate.convertMap(outOps, input);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
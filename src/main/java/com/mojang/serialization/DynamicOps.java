@@ -4,9 +4,13 @@ package com.mojang.serialization;
 
 import com.google.common.collect.ImmutableMap;
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.apache.commons.lang3.mutable.MutableObject;
 
 import java.nio.ByteBuffer;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -14,7 +18,6 @@ import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -38,6 +41,53 @@ public interface DynamicOps<T> {
         return getNumberValue(input).result().orElse(defaultValue);
     }
 
+    default DataResult<Byte> getByteValue(final T input) {
+        return getNumberValue(input).map(Number::byteValue);
+    }
+
+    default DataResult<Short> getShortValue(final T input) {
+        return getNumberValue(input).map(Number::shortValue);
+    }
+
+    default DataResult<Integer> getIntValue(final T input) {
+        return getNumberValue(input).map(Number::intValue);
+    }
+
+    default DataResult<Long> getLongValue(final T input) {
+        return getNumberValue(input).map(Number::longValue);
+    }
+
+    default DataResult<Float> getFloatValue(final T input) {
+        return getNumberValue(input).map(Number::floatValue);
+    }
+
+    default DataResult<Double> getDoubleValue(final T input) {
+        return getNumberValue(input).map(Number::doubleValue);
+    }
+
+    /**
+     * Reads the value without boxing it, or returns the default value if the input is not a number.
+     */
+    default int getIntValue(final T input, final int defaultValue) {
+        final Number value = getNumberValue(input, null);
+        return value != null ? value.intValue() : defaultValue;
+    }
+
+    default long getLongValue(final T input, final long defaultValue) {
+        final Number value = getNumberValue(input, null);
+        return value != null ? value.longValue() : defaultValue;
+    }
+
+    default float getFloatValue(final T input, final float defaultValue) {
+        final Number value = getNumberValue(input, null);
+        return value != null ? value.floatValue() : defaultValue;
+    }
+
+    default double getDoubleValue(final T input, final double defaultValue) {
+        final Number value = getNumberValue(input, null);
+        return value != null ? value.doubleValue() : defaultValue;
+    }
+
     T createNumeric(Number i);
 
     default T createByte(final byte value) {
@@ -99,6 +149,10 @@ public interface DynamicOps<T> {
         return mergeToMap(map, MapLike.forMap(values, this));
     }
 
+    /**
+     * Merges all entries at once. The default merges them one by one, which copies the map for every entry
+     * in immutable formats; ops should override this to build the result with a single copy.
+     */
     default DataResult<T> mergeToMap(final T map, final MapLike<T> values) {
         // TODO: AtomicReference.getPlain/setPlain in java9+
         final MutableObject<DataResult<T>> result = new MutableObject<>(DataResult.success(map));
@@ -114,7 +168,7 @@ public interface DynamicOps<T> {
      */
     default DataResult<T> mergeToPrimitive(final T prefix, final T value) {
         if (!Objects.equals(prefix, empty())) {
-            return DataResult.error("Do not know how to append a primitive value " + value + " to " + prefix, value);
+            return DataResult.error(() -> "Do not know how to append a primitive value " + value + " to " + prefix, value);
         }
         return DataResult.success(value);
     }
@@ -132,7 +186,7 @@ public interface DynamicOps<T> {
             try {
                 return DataResult.success(MapLike.forMap(s.collect(Pair.toMap()), this));
             } catch (final IllegalStateException e) {
-                return DataResult.error("Error while building map: " + e.getMessage());
+                return DataResult.error(() -> "Error while building map: " + e.getMessage());
             }
         });
     }
@@ -151,15 +205,16 @@ public interface DynamicOps<T> {
 
     default DataResult<ByteBuffer> getByteBuffer(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = stream.collect(Collectors.toList());
-            if (list.stream().allMatch(element -> getNumberValue(element).result().isPresent())) {
-                final ByteBuffer buffer = ByteBuffer.wrap(new byte[list.size()]);
-                for (int i = 0; i < list.size(); i++) {
-                    buffer.put(i, getNumberValue(list.get(i)).result().get().byteValue());
+            final ByteArrayList values = new ByteArrayList();
+            final Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                final Optional<Byte> value = getByteValue(iterator.next()).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not bytes: " + input);
                 }
-                return DataResult.success(buffer);
+                values.add(value.get().byteValue());
             }
-            return DataResult.error("Some elements are not bytes: " + input);
+            return DataResult.success(ByteBuffer.wrap(values.toByteArray()));
         });
     }
 
@@ -167,30 +222,51 @@ public interface DynamicOps<T> {
         return createList(IntStream.range(0, input.capacity()).mapToObj(i -> createByte(input.get(i))));
     }
 
-    default DataResult<IntStream> getIntStream(final T input) {
+    /**
+     * Reads a list of numbers into an array in a single pass, ops with a native representation should override this.
+     */
+    default DataResult<int[]> getIntArray(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = stream.collect(Collectors.toList());
-            if (list.stream().allMatch(element -> getNumberValue(element).result().isPresent())) {
-                return DataResult.success(list.stream().mapToInt(element -> getNumberValue(element).result().get().intValue()));
+            final IntArrayList values = new IntArrayList();
+            final Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                final Optional<Integer> value = getIntValue(iterator.next()).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not ints: " + input);
+                }
+                values.add(value.get().intValue());
             }
-            return DataResult.error("Some elements are not ints: " + input);
+            return DataResult.success(values.toIntArray());
         });
     }
 
+    default DataResult<IntStream> getIntStream(final T input) {
+        return getIntArray(input).map(IntStream::of);
+    }
+
     default T createIntList(final IntStream input) {
         return createList(input.mapToObj(this::createInt));
     }
 
-    default DataResult<LongStream> getLongStream(final T input) {
+    default DataResult<long[]> getLongArray(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = stream.collect(Collectors.toList());
-            if (list.stream().allMatch(element -> getNumberValue(element).result().isPresent())) {
-                return DataResult.success(list.stream().mapToLong(element -> getNumberValue(element).result().get().longValue()));
+            final LongArrayList values = new LongArrayList();
+            final Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                final Optional<Long> value = getLongValue(iterator.next()).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not longs: " + input);
+                }
+                values.add(value.get().longValue());
             }
-            return DataResult.error("Some elements are not longs: " + input);
+            return DataResult.success(values.toLongArray());
         });
     }
 
+    default DataResult<LongStream> getLongStream(final T input) {
+        return getLongArray(input).map(LongStream::of);
+    }
+
     default T createLongList(final LongStream input) {
         return createList(input.mapToObj(this::createLong));
     }
@@ -208,7 +284,7 @@ public interface DynamicOps<T> {
     default DataResult<T> getGeneric(final T input, final T key) {
         return getMap(input).flatMap(map -> Optional.ofNullable(map.get(key))
             .map(DataResult::success)
-            .orElseGet(() -> DataResult.error("No element " + key + " in the map " + input))
+            .orElseGet(() -> DataResult.error(() -> "No element " + key + " in the map " + input))
         );
     }
 
@@ -246,13 +322,30 @@ public interface DynamicOps<T> {
         return t -> decoder.parse(this, t);
     }
 
+    /**
+     * Walks the value into the visitor. Ops that implement this walk their values directly, and convert to other ops
+     * with {@code visit(input, outOps.visitor())}. The default converts to the ops of the visitor.
+     */
+    default <U> U visit(final T input, final ValueVisitor<U> visitor) {
+        return convertTo(visitor.ops(), input);
+    }
+
+    /**
+     * Builds values of these ops from a {@link #visit} of another one.
+     */
+    default ValueVisitor<T> visitor() {
+        return new ValueVisitor.OpsVisitor<>(this);
+    }
+
     default <U> U convertList(final DynamicOps<U> outOps, final T input) {
-        return outOps.createList(getStream(input).result().orElse(Stream.empty()).map(e -> convertTo(outOps, e)));
+        final ValueVisitor.ListVisitor<U> list = outOps.visitor().visitList(-1);
+        getList(input).result().ifPresent(c -> c.accept(e -> list.visitElement(convertTo(outOps, e))));
+        return list.visitEnd();
     }
 
     default <U> U convertMap(final DynamicOps<U> outOps, final T input) {
-        return outOps.createMap(getMapValues(input).result().orElse(Stream.empty()).map(e ->
-            Pair.of(convertTo(outOps, e.getFirst()), convertTo(outOps, e.getSecond()))
-        ));
+        final ValueVisitor.MapVisitor<U> map = outOps.visitor().visitMap(-1);
+        getMapEntries(input).result().ifPresent(c -> c.accept((k, v) -> map.visitEntry(convertTo(outOps, k), convertTo(outOps, v))));
+        return map.visitEnd();
     }
 }
@@ -4,6 +4,8 @@ package com.mojang.serialization;
 
 import com.mojang.serialization.codecs.FieldEncoder;
 
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -14,6 +16,16 @@ public interface Encoder<A> {
         return encode(input, ops, ops.empty());
     }
 
+    /**
+     * Adds the entries of the encoded map to the builder, for encoders that produce maps.
+     * The default encodes to a separate map first, encoders that can write fields directly should override this.
+     */
+    default <T> RecordBuilder<T> encodeFields(final A input, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+        final DataResult<Consumer<BiConsumer<T, T>>> entries = encodeStart(ops, input).flatMap(ops::getMapEntries);
+        entries.result().ifPresent(c -> c.accept(builder::add));
+        return builder.withErrorsFrom(entries);
+    }
+
     default MapEncoder<A> fieldOf(final String name) {
         return new FieldEncoder<>(name, this);
     }
@@ -25,6 +37,11 @@ public interface Encoder<A> {
                 return Encoder.this.encode(function.apply(input), ops, prefix);
             }
 
+            @Override
+            public <T> RecordBuilder<T> encodeFields(final B input, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+                return Encoder.this.encodeFields(function.apply(input), ops, builder);
+            }
+
             @Override
             public String toString() {
                 return Encoder.this.toString() + "[comapped]";
@@ -83,7 +100,7 @@ public interface Encoder<A> {
         return new Encoder<A>() {
             @Override
             public <T> DataResult<T> encode(final A input, final DynamicOps<T> ops, final T prefix) {
-                return DataResult.error(error + " " + input);
+                return DataResult.error(() -> error + " " + input);
             }
 
             @Override
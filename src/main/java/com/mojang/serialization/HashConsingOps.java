@@ -0,0 +1,344 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.mojang.datafixers.util.Pair;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Makes equal values created through it share one instance, so encoding many identical subtrees keeps one copy of
+ * each. Values are looked up in a bounded table, where each value hashes to a pair of slots holding the last two
+ * values seen there. Primitives are matched by the Java value they are created from. Lists and maps are matched by
+ * their entries, comparing keys by equality and children by identity: output is built bottom up, so equal children
+ * are already the same instance and each lookup only looks at one level.
+ * <p>
+ * Shared values must not be mutated, which the ops never do, but callers holding mutable values such as
+ * {@code JsonElement}s have to copy them before changing them.
+ * <p>
+ * The table belongs to the instance, which is only equal to itself, so reuse one instance instead of creating it per
+ * call: codecs cache keys and compressors per ops.
+ */
+public class HashConsingOps<T> extends DelegatingOps<T> {
+    private final AtomicReferenceArray<Entry<T>> slots;
+    private final int mask;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public HashConsingOps(final DynamicOps<T> delegate, final int capacity) {
+        super(delegate);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        final int size = capacity > 1 << 30 ? 1 << 30 : Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    private T intern(final Object key, final Function<Object, T> create) {
+        final int h = key.hashCode();
+        final int slot = (h ^ (h >>> 16)) & mask & ~1;
+        final Entry<T> first = slots.get(slot);
+        if (first != null && first.key.equals(key)) {
+            return first.value;
+        }
+        final Entry<T> second = slots.get(slot + 1);
+        if (second != null && second.key.equals(key)) {
+            return second.value;
+        }
+        final T value = create.apply(key);
+        if (first != null) {
+            slots.lazySet(slot + 1, first);
+        }
+        slots.lazySet(slot, new Entry<>(key, value));
+        return value;
+    }
+
+    private T list(final T value) {
+        final List<T> elements = new ArrayList<>();
+        if (!delegate.getList(value).result().map(c -> {
+            c.accept(elements::add);
+            return true;
+        }).isPresent()) {
+            return value;
+        }
+        return intern(new Shape(false, elements.toArray()), k -> value);
+    }
+
+    private T map(final T value) {
+        final List<Object> entries = new ArrayList<>();
+        if (!delegate.getMapEntries(value).result().map(c -> {
+            c.accept((k, v) -> {
+                entries.add(k);
+                entries.add(v);
+            });
+            return true;
+        }).isPresent()) {
+            return value;
+        }
+        return intern(new Shape(true, entries.toArray()), k -> value);
+    }
+
+    @Override
+    public T emptyMap() {
+        return map(delegate.emptyMap());
+    }
+
+    @Override
+    public T emptyList() {
+        return list(delegate.emptyList());
+    }
+
+    @Override
+    public T createNumeric(final Number i) {
+        return intern(i, k -> delegate.createNumeric(i));
+    }
+
+    @Override
+    public T createByte(final byte value) {
+        return intern(value, k -> delegate.createByte(value));
+    }
+
+    @Override
+    public T createShort(final short value) {
+        return intern(value, k -> delegate.createShort(value));
+    }
+
+    @Override
+    public T createInt(final int value) {
+        return intern(value, k -> delegate.createInt(value));
+    }
+
+    @Override
+    public T createLong(final long value) {
+        return intern(value, k -> delegate.createLong(value));
+    }
+
+    @Override
+    public T createFloat(final float value) {
+        return intern(value, k -> delegate.createFloat(value));
+    }
+
+    @Override
+    public T createDouble(final double value) {
+        return intern(value, k -> delegate.createDouble(value));
+    }
+
+    @Override
+    public T createBoolean(final boolean value) {
+        return intern(value, k -> delegate.createBoolean(value));
+    }
+
+    @Override
+    public T createString(final String value) {
+        return intern(value, k -> delegate.createString(value));
+    }
+
+    @Override
+    public T createByteList(final ByteBuffer input) {
+        final byte[] values = new byte[input.capacity()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = input.get(i);
+        }
+        return intern(new Values(values), k -> delegate.createByteList(ByteBuffer.wrap(values)));
+    }
+
+    @Override
+    public T createIntList(final IntStream input) {
+        final int[] values = input.toArray();
+        return intern(new Values(values), k -> delegate.createIntList(IntStream.of(values)));
+    }
+
+    @Override
+    public T createLongList(final LongStream input) {
+        final long[] values = input.toArray();
+        return intern(new Values(values), k -> delegate.createLongList(LongStream.of(values)));
+    }
+
+    @Override
+    public T createList(final Stream<T> input) {
+        final List<T> elements = input.collect(Collectors.toList());
+        return intern(new Shape(false, elements.toArray()), k -> delegate.createList(elements.stream()));
+    }
+
+    @Override
+    public T createMap(final Stream<Pair<T, T>> map) {
+        final List<Object> entries = new ArrayList<>();
+        for (final Iterator<Pair<T, T>> iterator = map.iterator(); iterator.hasNext(); ) {
+            final Pair<T, T> entry = iterator.next();
+            entries.add(entry.getFirst());
+            entries.add(entry.getSecond());
+        }
+        return intern(new Shape(true, entries.toArray()), k -> delegate.createMap(((Shape) k).entries()));
+    }
+
+    @Override
+    public T createMap(final Map<T, T> map) {
+        final Object[] entries = new Object[map.size() * 2];
+        int i = 0;
+        for (final Map.Entry<T, T> entry : map.entrySet()) {
+            entries[i++] = entry.getKey();
+            entries[i++] = entry.getValue();
+        }
+        return intern(new Shape(true, entries), k -> delegate.createMap(map));
+    }
+
+    @Override
+    public DataResult<T> mergeToList(final T list, final T value) {
+        return delegate.mergeToList(list, value).map(this::list);
+    }
+
+    @Override
+    public DataResult<T> mergeToList(final T list, final List<T> values) {
+        return delegate.mergeToList(list, values).map(this::list);
+    }
+
+    @Override
+    public DataResult<T> mergeToMap(final T map, final T key, final T value) {
+        return delegate.mergeToMap(map, key, value).map(this::map);
+    }
+
+    @Override
+    public DataResult<T> mergeToMap(final T map, final Map<T, T> values) {
+        return delegate.mergeToMap(map, values).map(this::map);
+    }
+
+    @Override
+    public DataResult<T> mergeToMap(final T map, final MapLike<T> values) {
+        return delegate.mergeToMap(map, values).map(this::map);
+    }
+
+    @Override
+    public T remove(final T input, final String key) {
+        final T result = delegate.remove(input, key);
+        return result == input ? input : map(result);
+    }
+
+    @Override
+    public T set(final T input, final String key, final T value) {
+        return mergeToMap(input, createString(key), value).result().orElse(input);
+    }
+
+    @Override
+    public T update(final T input, final String key, final Function<T, T> function) {
+        return get(input, key).map(value -> set(input, key, function.apply(value))).result().orElse(input);
+    }
+
+    @Override
+    public T updateGeneric(final T input, final T key, final Function<T, T> function) {
+        return getGeneric(input, key).flatMap(value -> mergeToMap(input, key, function.apply(value))).result().orElse(input);
+    }
+
+    @Override
+    public ListBuilder<T> listBuilder() {
+        return new ListBuilder.Builder<>(this);
+    }
+
+    @Override
+    public RecordBuilder<T> mapBuilder() {
+        return new RecordBuilder.MapBuilder<>(this);
+    }
+
+    @Override
+    public ValueVisitor<T> visitor() {
+        return new ValueVisitor.OpsVisitor<>(this);
+    }
+
+    @Override
+    public String toString() {
+        return "HashConsing[" + delegate + "]";
+    }
+
+    private static final class Entry<T> {
+        private final Object key;
+        private final T value;
+
+        private Entry(final Object key, final T value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Contents of a numeric array.
+     */
+    private static final class Values {
+        private final Object array;
+
+        private Values(final Object array) {
+            this.array = array;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Values && Objects.deepEquals(array, ((Values) o).array);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.deepHashCode(new Object[]{array});
+        }
+    }
+
+    /**
+     * The children of a list, or the alternating keys and values of a map.
+     */
+    private static final class Shape {
+        private final boolean map;
+        private final Object[] parts;
+        private final int hash;
+
+        private Shape(final boolean map, final Object[] parts) {
+            this.map = map;
+            this.parts = parts;
+            int hash = map ? 1 : 0;
+            for (int i = 0; i < parts.length; i++) {
+                hash = 31 * hash + (map && i % 2 == 0 ? Objects.hashCode(parts[i]) : System.identityHashCode(parts[i]));
+            }
+            this.hash = hash;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> Stream<Pair<T, T>> entries() {
+            return IntStream.range(0, parts.length / 2).mapToObj(i -> Pair.of((T) parts[2 * i], (T) parts[2 * i + 1]));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Shape)) {
+                return false;
+            }
+            final Shape other = (Shape) o;
+            if (hash != other.hash || map != other.map || parts.length != other.parts.length) {
+                return false;
+            }
+            for (int i = 0; i < parts.length; i++) {
+                if (map && i % 2 == 0 ? !Objects.equals(parts[i], other.parts[i]) : parts[i] != other.parts[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
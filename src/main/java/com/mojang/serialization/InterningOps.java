@@ -0,0 +1,51 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+/**
+ * Deduplicates the strings read through it in a {@link StringPool}. Everything that reads strings goes through
+ * {@link #getStringValue}: {@link Codec#STRING}, dispatch keys, map keys decoded by {@link Codec#unboundedMap} and
+ * {@link Dynamic#asString}, so decoding with these ops makes repeated ids and names share one instance.
+ * <p>
+ * Ops wrapping equal delegates with the same pool are equal, so creating them per call still shares the caches codecs
+ * keep per ops.
+ */
+public class InterningOps<T> extends DelegatingOps<T> {
+    private final StringPool pool;
+
+    protected InterningOps(final DynamicOps<T> delegate, final StringPool pool) {
+        super(delegate);
+        this.pool = pool;
+    }
+
+    public static <T> InterningOps<T> of(final DynamicOps<T> ops, final StringPool pool) {
+        if (ops instanceof InterningOps && ((InterningOps<T>) ops).pool == pool) {
+            return (InterningOps<T>) ops;
+        }
+        return new InterningOps<>(ops, pool);
+    }
+
+    public StringPool pool() {
+        return pool;
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final T input) {
+        return delegate.getStringValue(input).map(pool::intern);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o || o != null && o.getClass() == getClass() && pool == ((InterningOps<?>) o).pool && delegate.equals(((InterningOps<?>) o).delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * delegate.hashCode() + pool.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Interning[" + delegate + "]";
+    }
+}
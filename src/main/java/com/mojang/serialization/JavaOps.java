@@ -0,0 +1,595 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.common.collect.Lists;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.Unit;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Ops over plain Java objects: {@link Map}s, {@link List}s, boxed numbers, {@link Boolean}s and {@link String}s.
+ * Numeric lists are created as {@code byte[]}, {@code int[]} and {@code long[]}, and can be read back as lists.
+ * The empty value is {@link Unit#INSTANCE}, null is read as empty too. Like JSON nulls, empty map values are read as
+ * missing. Inputs are never modified, merging returns new maps and lists.
+ */
+public class JavaOps implements DynamicOps<Object> {
+    public static final JavaOps INSTANCE = new JavaOps();
+
+    protected JavaOps() {
+    }
+
+    @Override
+    public Object empty() {
+        return Unit.INSTANCE;
+    }
+
+    @Override
+    public Object emptyMap() {
+        return new LinkedHashMap<>();
+    }
+
+    @Override
+    public Object emptyList() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final Object input) {
+        return visit(input, outOps.visitor());
+    }
+
+    @Override
+    public <U> U visit(final Object input, final ValueVisitor<U> visitor) {
+        if (input == null || input == empty()) {
+            return visitor.visitEmpty();
+        }
+        if (input instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) input;
+            final ValueVisitor.MapVisitor<U> output = visitor.visitMap(map.size());
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getKey() instanceof String) {
+                    output.visitEntry((String) entry.getKey(), visit(entry.getValue(), visitor));
+                } else {
+                    output.visitEntry(visit(entry.getKey(), visitor), visit(entry.getValue(), visitor));
+                }
+            }
+            return output.visitEnd();
+        }
+        if (input instanceof List) {
+            final List<?> list = (List<?>) input;
+            final ValueVisitor.ListVisitor<U> output = visitor.visitList(list.size());
+            for (final Object element : list) {
+                output.visitElement(visit(element, visitor));
+            }
+            return output.visitEnd();
+        }
+        if (input instanceof String) {
+            return visitor.visitString((String) input);
+        }
+        if (input instanceof Boolean) {
+            return visitor.visitBoolean((Boolean) input);
+        }
+        if (input instanceof Byte) {
+            return visitor.visitByte((Byte) input);
+        }
+        if (input instanceof Short) {
+            return visitor.visitShort((Short) input);
+        }
+        if (input instanceof Integer) {
+            return visitor.visitInt((Integer) input);
+        }
+        if (input instanceof Long) {
+            return visitor.visitLong((Long) input);
+        }
+        if (input instanceof Float) {
+            return visitor.visitFloat((Float) input);
+        }
+        if (input instanceof Double) {
+            return visitor.visitDouble((Double) input);
+        }
+        if (input instanceof Number) {
+            return visitor.visitNumber((Number) input);
+        }
+        if (input instanceof byte[]) {
+            return visitor.visitByteArray(((byte[]) input).clone());
+        }
+        if (input instanceof int[]) {
+            return visitor.visitIntArray(((int[]) input).clone());
+        }
+        if (input instanceof long[]) {
+            return visitor.visitLongArray(((long[]) input).clone());
+        }
+        throw new IllegalArgumentException("Not a supported value: " + input);
+    }
+
+    @Override
+    public ValueVisitor<Object> visitor() {
+        return new JavaVisitor();
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final Object input) {
+        if (input instanceof Number) {
+            return DataResult.success((Number) input);
+        }
+        if (input instanceof Boolean) {
+            return DataResult.success((Boolean) input ? 1 : 0);
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Byte> getByteValue(final Object input) {
+        if (input instanceof Number) {
+            return DataResult.success(((Number) input).byteValue());
+        }
+        return getNumberValue(input).map(Number::byteValue);
+    }
+
+    @Override
+    public DataResult<Short> getShortValue(final Object input) {
+        if (input instanceof Number) {
+            return DataResult.success(((Number) input).shortValue());
+        }
+        return getNumberValue(input).map(Number::shortValue);
+    }
+
+    @Override
+    public DataResult<Integer> getIntValue(final Object input) {
+        if (input instanceof Integer) {
+            return DataResult.success((Integer) input);
+        }
+        if (input instanceof Number) {
+            return DataResult.success(((Number) input).intValue());
+        }
+        return getNumberValue(input).map(Number::intValue);
+    }
+
+    @Override
+    public DataResult<Long> getLongValue(final Object input) {
+        if (input instanceof Long) {
+            return DataResult.success((Long) input);
+        }
+        if (input instanceof Number) {
+            return DataResult.success(((Number) input).longValue());
+        }
+        return getNumberValue(input).map(Number::longValue);
+    }
+
+    @Override
+    public DataResult<Float> getFloatValue(final Object input) {
+        if (input instanceof Number) {
+            return DataResult.success(((Number) input).floatValue());
+        }
+        return getNumberValue(input).map(Number::floatValue);
+    }
+
+    @Override
+    public DataResult<Double> getDoubleValue(final Object input) {
+        if (input instanceof Double) {
+            return DataResult.success((Double) input);
+        }
+        if (input instanceof Number) {
+            return DataResult.success(((Number) input).doubleValue());
+        }
+        return getNumberValue(input).map(Number::doubleValue);
+    }
+
+    @Override
+    public int getIntValue(final Object input, final int defaultValue) {
+        return input instanceof Number ? ((Number) input).intValue() : DynamicOps.super.getIntValue(input, defaultValue);
+    }
+
+    @Override
+    public long getLongValue(final Object input, final long defaultValue) {
+        return input instanceof Number ? ((Number) input).longValue() : DynamicOps.super.getLongValue(input, defaultValue);
+    }
+
+    @Override
+    public float getFloatValue(final Object input, final float defaultValue) {
+        return input instanceof Number ? ((Number) input).floatValue() : DynamicOps.super.getFloatValue(input, defaultValue);
+    }
+
+    @Override
+    public double getDoubleValue(final Object input, final double defaultValue) {
+        return input instanceof Number ? ((Number) input).doubleValue() : DynamicOps.super.getDoubleValue(input, defaultValue);
+    }
+
+    @Override
+    public Object createNumeric(final Number i) {
+        return i;
+    }
+
+    @Override
+    public Object createByte(final byte value) {
+        return value;
+    }
+
+    @Override
+    public Object createShort(final short value) {
+        return value;
+    }
+
+    @Override
+    public Object createInt(final int value) {
+        return value;
+    }
+
+    @Override
+    public Object createLong(final long value) {
+        return value;
+    }
+
+    @Override
+    public Object createFloat(final float value) {
+        return value;
+    }
+
+    @Override
+    public Object createDouble(final double value) {
+        return value;
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final Object input) {
+        if (input instanceof Boolean) {
+            return DataResult.success((Boolean) input);
+        }
+        if (input instanceof Number) {
+            return DataResult.success(((Number) input).byteValue() != 0);
+        }
+        return DataResult.error(() -> "Not a boolean: " + input);
+    }
+
+    @Override
+    public Object createBoolean(final boolean value) {
+        return value;
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final Object input) {
+        if (input instanceof String) {
+            return DataResult.success((String) input);
+        }
+        return DataResult.error(() -> "Not a string: " + input);
+    }
+
+    @Override
+    public Object createString(final String value) {
+        return value;
+    }
+
+    @Override
+    public DataResult<Object> mergeToList(final Object list, final Object value) {
+        return mergeToList(list, Lists.newArrayList(value));
+    }
+
+    @Override
+    public DataResult<Object> mergeToList(final Object list, final List<Object> values) {
+        if (list == empty()) {
+            return DataResult.success(new ArrayList<>(values));
+        }
+        final Object input = list;
+        final List<Object> elements = elements(list);
+        if (elements == null) {
+            return DataResult.error(() -> "mergeToList called with not a list: " + input, list);
+        }
+        final List<Object> result = new ArrayList<>(elements.size() + values.size());
+        result.addAll(elements);
+        result.addAll(values);
+        return DataResult.success(result);
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final Object key, final Object value) {
+        if (!(map instanceof Map) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        final Map<Object, Object> result = copy(map);
+        result.put(key, value);
+        return DataResult.success(result);
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final Map<Object, Object> values) {
+        if (!(map instanceof Map) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        final Map<Object, Object> result = copy(map);
+        result.putAll(values);
+        return DataResult.success(result);
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final MapLike<Object> values) {
+        if (!(map instanceof Map) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        final Map<Object, Object> result = copy(map);
+        values.entries().forEach(entry -> result.put(entry.getFirst(), entry.getSecond()));
+        return DataResult.success(result);
+    }
+
+    private static Map<Object, Object> copy(final Object map) {
+        return map instanceof Map ? new LinkedHashMap<>((Map<?, ?>) map) : new LinkedHashMap<>();
+    }
+
+    @Override
+    public DataResult<Stream<Pair<Object, Object>>> getMapValues(final Object input) {
+        if (!(input instanceof Map)) {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+        return DataResult.success(((Map<?, ?>) input).entrySet().stream().map(e -> Pair.of(e.getKey(), nullIfEmpty(e.getValue()))));
+    }
+
+    @Override
+    public DataResult<Consumer<BiConsumer<Object, Object>>> getMapEntries(final Object input) {
+        if (!(input instanceof Map)) {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+        return DataResult.success(c -> ((Map<?, ?>) input).forEach((key, value) -> c.accept(key, nullIfEmpty(value))));
+    }
+
+    @Nullable
+    private Object nullIfEmpty(@Nullable final Object value) {
+        return value == empty() ? null : value;
+    }
+
+    @Override
+    public DataResult<MapLike<Object>> getMap(final Object input) {
+        if (!(input instanceof Map)) {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+        final Map<?, ?> map = (Map<?, ?>) input;
+        return DataResult.success(new MapLike<Object>() {
+            @Nullable
+            @Override
+            public Object get(final Object key) {
+                return nullIfEmpty(map.get(key));
+            }
+
+            @Nullable
+            @Override
+            public Object get(final String key) {
+                return nullIfEmpty(map.get(key));
+            }
+
+            @Override
+            public Stream<Pair<Object, Object>> entries() {
+                return map.entrySet().stream().map(e -> Pair.of(e.getKey(), e.getValue()));
+            }
+
+            @Override
+            public String toString() {
+                return "MapLike[" + map + "]";
+            }
+        });
+    }
+
+    @Override
+    public Object createMap(final Stream<Pair<Object, Object>> map) {
+        final Map<Object, Object> result = new LinkedHashMap<>();
+        map.forEach(p -> result.put(p.getFirst(), p.getSecond()));
+        return result;
+    }
+
+    @Override
+    public Object createMap(final Map<Object, Object> map) {
+        return new LinkedHashMap<>(map);
+    }
+
+    @Override
+    public DataResult<Stream<Object>> getStream(final Object input) {
+        final List<Object> elements = elements(input);
+        if (elements == null) {
+            return DataResult.error(() -> "Not a list: " + input);
+        }
+        return DataResult.success(elements.stream());
+    }
+
+    @Override
+    public DataResult<Consumer<Consumer<Object>>> getList(final Object input) {
+        final List<Object> elements = elements(input);
+        if (elements == null) {
+            return DataResult.error(() -> "Not a list: " + input);
+        }
+        return DataResult.success(elements::forEach);
+    }
+
+    /**
+     * The elements of a list or numeric array, null for other values.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    protected static List<Object> elements(final Object input) {
+        if (input instanceof List) {
+            return (List<Object>) input;
+        }
+        if (input instanceof byte[]) {
+            final byte[] values = (byte[]) input;
+            final List<Object> result = new ArrayList<>(values.length);
+            for (final byte value : values) {
+                result.add(value);
+            }
+            return result;
+        }
+        if (input instanceof int[]) {
+            return Arrays.asList(IntStream.of((int[]) input).boxed().toArray());
+        }
+        if (input instanceof long[]) {
+            return Arrays.asList(LongStream.of((long[]) input).boxed().toArray());
+        }
+        return null;
+    }
+
+    @Override
+    public Object createList(final Stream<Object> input) {
+        final List<Object> result = new ArrayList<>();
+        input.forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final Object input) {
+        if (input instanceof byte[]) {
+            return DataResult.success(ByteBuffer.wrap(((byte[]) input).clone()));
+        }
+        return DynamicOps.super.getByteBuffer(input);
+    }
+
+    @Override
+    public Object createByteList(final ByteBuffer input) {
+        final byte[] values = new byte[input.capacity()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = input.get(i);
+        }
+        return values;
+    }
+
+    @Override
+    public DataResult<int[]> getIntArray(final Object input) {
+        if (input instanceof int[]) {
+            return DataResult.success(((int[]) input).clone());
+        }
+        return DynamicOps.super.getIntArray(input);
+    }
+
+    @Override
+    public Object createIntList(final IntStream input) {
+        return input.toArray();
+    }
+
+    @Override
+    public DataResult<long[]> getLongArray(final Object input) {
+        if (input instanceof long[]) {
+            return DataResult.success(((long[]) input).clone());
+        }
+        return DynamicOps.super.getLongArray(input);
+    }
+
+    @Override
+    public Object createLongList(final LongStream input) {
+        return input.toArray();
+    }
+
+    @Override
+    public Object remove(final Object input, final String key) {
+        if (input instanceof Map && ((Map<?, ?>) input).containsKey(key)) {
+            final Map<Object, Object> result = copy(input);
+            result.remove(key);
+            return result;
+        }
+        return input;
+    }
+
+    @Override
+    public RecordBuilder<Object> mapBuilder() {
+        return new JavaRecordBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "Java";
+    }
+
+    private class JavaVisitor extends ValueVisitor.OpsVisitor<Object> {
+        protected JavaVisitor() {
+            super(JavaOps.this);
+        }
+
+        @Override
+        public Object visitByteArray(final byte[] values) {
+            return values;
+        }
+
+        @Override
+        public Object visitIntArray(final int[] values) {
+            return values;
+        }
+
+        @Override
+        public Object visitLongArray(final long[] values) {
+            return values;
+        }
+
+        @Override
+        public ValueVisitor.ListVisitor<Object> visitList(final int size) {
+            final List<Object> elements = new ArrayList<>(Math.max(size, 0));
+            return new ValueVisitor.ListVisitor<Object>() {
+                @Override
+                public void visitElement(final Object value) {
+                    elements.add(value);
+                }
+
+                @Override
+                public Object visitEnd() {
+                    return elements;
+                }
+            };
+        }
+
+        @Override
+        public ValueVisitor.MapVisitor<Object> visitMap(final int size) {
+            final Map<Object, Object> entries = new LinkedHashMap<>();
+            return new ValueVisitor.MapVisitor<Object>() {
+                @Override
+                public void visitEntry(final String key, final Object value) {
+                    entries.put(key, value);
+                }
+
+                @Override
+                public void visitEntry(final Object key, final Object value) {
+                    entries.put(key, value);
+                }
+
+                @Override
+                public Object visitEnd() {
+                    return entries;
+                }
+            };
+        }
+    }
+
+    private class JavaRecordBuilder extends RecordBuilder.AbstractUniversalBuilder<Object, Map<Object, Object>> {
+        protected JavaRecordBuilder() {
+            super(JavaOps.this);
+        }
+
+        @Override
+        protected Map<Object, Object> initBuilder() {
+            return new LinkedHashMap<>();
+        }
+
+        @Override
+        protected Map<Object, Object> append(final Object key, final Object value, final Map<Object, Object> builder) {
+            builder.put(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<Object> build(final Map<Object, Object> builder, final Object prefix) {
+            if (prefix == null || prefix == empty()) {
+                return DataResult.success(builder);
+            }
+            if (prefix instanceof Map) {
+                final Map<Object, Object> result = copy(prefix);
+                result.putAll(builder);
+                return DataResult.success(result);
+            }
+            return DataResult.error(() -> "mergeToMap called with not a map: " + prefix, prefix);
+        }
+    }
+}
@@ -12,12 +12,17 @@ import com.mojang.datafixers.util.Pair;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -38,42 +43,106 @@ public class JsonOps implements DynamicOps<JsonElement> {
 
     @Override
     public <U> U convertTo(final DynamicOps<U> outOps, final JsonElement input) {
+        return visit(input, outOps.visitor());
+    }
+
+    @Override
+    public <U> U visit(final JsonElement input, final ValueVisitor<U> visitor) {
         if (input instanceof JsonObject) {
-            return convertMap(outOps, input);
+            final JsonObject object = input.getAsJsonObject();
+            final ValueVisitor.MapVisitor<U> map = visitor.visitMap(object.size());
+            for (final Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                map.visitEntry(entry.getKey(), visit(entry.getValue(), visitor));
+            }
+            return map.visitEnd();
         }
         if (input instanceof JsonArray) {
-            return convertList(outOps, input);
+            final JsonArray array = input.getAsJsonArray();
+            final ValueVisitor.ListVisitor<U> list = visitor.visitList(array.size());
+            for (final JsonElement element : array) {
+                list.visitElement(visit(element, visitor));
+            }
+            return list.visitEnd();
         }
         if (input instanceof JsonNull) {
-            return outOps.empty();
+            return visitor.visitEmpty();
         }
         final JsonPrimitive primitive = input.getAsJsonPrimitive();
         if (primitive.isString()) {
-            return outOps.createString(primitive.getAsString());
+            return visitor.visitString(primitive.getAsString());
         }
         if (primitive.isBoolean()) {
-            return outOps.createBoolean(primitive.getAsBoolean());
+            return visitor.visitBoolean(primitive.getAsBoolean());
         }
-        final BigDecimal value = primitive.getAsBigDecimal();
-        try {
-            final long l = value.longValueExact();
-            if ((byte) l == l) {
-                return outOps.createByte((byte) l);
-            }
-            if ((short) l == l) {
-                return outOps.createShort((short) l);
+        return visitNumber(primitive.getAsNumber(), visitor);
+    }
+
+    /**
+     * Visits the number as the narrowest type that holds it, integral values before floating point ones.
+     * Numbers parsed from text are classified by their digits, everything else by its value.
+     */
+    private static <U> U visitNumber(final Number number, final ValueVisitor<U> visitor) {
+        if (number instanceof Byte || number instanceof Short || number instanceof Integer || number instanceof Long) {
+            return visitIntegral(number.longValue(), visitor);
+        }
+        if (number instanceof Float || number instanceof Double) {
+            return visitFloating(number.doubleValue(), visitor);
+        }
+        if (number instanceof BigDecimal || number instanceof BigInteger) {
+            final BigDecimal value = number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal((BigInteger) number);
+            try {
+                return visitIntegral(value.longValueExact(), visitor);
+            } catch (final ArithmeticException e) {
+                return visitFloating(value.doubleValue(), visitor);
             }
-            if ((int) l == l) {
-                return outOps.createInt((int) l);
+        }
+        final String text = number.toString();
+        if (isIntegralText(text)) {
+            try {
+                return visitIntegral(Long.parseLong(text), visitor);
+            } catch (final NumberFormatException e) {
+                // out of long range
             }
-            return outOps.createLong(l);
-        } catch (final ArithmeticException e) {
-            final double d = value.doubleValue();
-            if ((float) d == d) {
-                return outOps.createFloat((float) d);
+        }
+        return visitFloating(number.doubleValue(), visitor);
+    }
+
+    private static boolean isIntegralText(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if ((c < '0' || c > '9') && (c != '-' || i != 0)) {
+                return false;
             }
-            return outOps.createDouble(d);
         }
+        return !text.isEmpty();
+    }
+
+    private static <U> U visitIntegral(final long l, final ValueVisitor<U> visitor) {
+        if ((byte) l == l) {
+            return visitor.visitByte((byte) l);
+        }
+        if ((short) l == l) {
+            return visitor.visitShort((short) l);
+        }
+        if ((int) l == l) {
+            return visitor.visitInt((int) l);
+        }
+        return visitor.visitLong(l);
+    }
+
+    private static <U> U visitFloating(final double d, final ValueVisitor<U> visitor) {
+        if (d >= -0x1p63 && d < 0x1p63 && (long) d == d) {
+            return visitIntegral((long) d, visitor);
+        }
+        if ((float) d == d || Double.isNaN(d)) {
+            return visitor.visitFloat((float) d);
+        }
+        return visitor.visitDouble(d);
+    }
+
+    @Override
+    public ValueVisitor<JsonElement> visitor() {
+        return new JsonVisitor();
     }
 
     @Override
@@ -88,14 +157,82 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 try {
                     return DataResult.success(Integer.parseInt(input.getAsString()));
                 } catch (final NumberFormatException e) {
-                    return DataResult.error("Not a number: " + e + " " + input);
+                    return DataResult.error(() -> "Not a number: " + e + " " + input);
                 }
             }
         }
         if (input instanceof JsonPrimitive && input.getAsJsonPrimitive().isBoolean()) {
             return DataResult.success(input.getAsJsonPrimitive().getAsBoolean() ? 1 : 0);
         }
-        return DataResult.error("Not a number: " + input);
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Byte> getByteValue(final JsonElement input) {
+        if (isNumber(input)) {
+            return DataResult.success(input.getAsByte());
+        }
+        return getNumberValue(input).map(Number::byteValue);
+    }
+
+    @Override
+    public DataResult<Short> getShortValue(final JsonElement input) {
+        if (isNumber(input)) {
+            return DataResult.success(input.getAsShort());
+        }
+        return getNumberValue(input).map(Number::shortValue);
+    }
+
+    @Override
+    public DataResult<Integer> getIntValue(final JsonElement input) {
+        if (isNumber(input)) {
+            return DataResult.success(input.getAsInt());
+        }
+        return getNumberValue(input).map(Number::intValue);
+    }
+
+    @Override
+    public DataResult<Long> getLongValue(final JsonElement input) {
+        if (isNumber(input)) {
+            return DataResult.success(input.getAsLong());
+        }
+        return getNumberValue(input).map(Number::longValue);
+    }
+
+    @Override
+    public DataResult<Float> getFloatValue(final JsonElement input) {
+        if (isNumber(input)) {
+            return DataResult.success(input.getAsFloat());
+        }
+        return getNumberValue(input).map(Number::floatValue);
+    }
+
+    @Override
+    public DataResult<Double> getDoubleValue(final JsonElement input) {
+        if (isNumber(input)) {
+            return DataResult.success(input.getAsDouble());
+        }
+        return getNumberValue(input).map(Number::doubleValue);
+    }
+
+    @Override
+    public int getIntValue(final JsonElement input, final int defaultValue) {
+        return isNumber(input) ? input.getAsInt() : DynamicOps.super.getIntValue(input, defaultValue);
+    }
+
+    @Override
+    public long getLongValue(final JsonElement input, final long defaultValue) {
+        return isNumber(input) ? input.getAsLong() : DynamicOps.super.getLongValue(input, defaultValue);
+    }
+
+    @Override
+    public float getFloatValue(final JsonElement input, final float defaultValue) {
+        return isNumber(input) ? input.getAsFloat() : DynamicOps.super.getFloatValue(input, defaultValue);
+    }
+
+    @Override
+    public double getDoubleValue(final JsonElement input, final double defaultValue) {
+        return isNumber(input) ? input.getAsDouble() : DynamicOps.super.getDoubleValue(input, defaultValue);
     }
 
     @Override
@@ -112,7 +249,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 return DataResult.success(input.getAsNumber().byteValue() != 0);
             }
         }
-        return DataResult.error("Not a boolean: " + input);
+        return DataResult.error(() -> "Not a boolean: " + input);
     }
 
     @Override
@@ -127,7 +264,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 return DataResult.success(input.getAsString());
             }
         }
-        return DataResult.error("Not a string: " + input);
+        return DataResult.error(() -> "Not a string: " + input);
     }
 
     @Override
@@ -138,7 +275,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
     @Override
     public DataResult<JsonElement> mergeToList(final JsonElement list, final JsonElement value) {
         if (!(list instanceof JsonArray) && list != empty()) {
-            return DataResult.error("mergeToList called with not a list: " + list, list);
+            return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
         }
 
         final JsonArray result = new JsonArray();
@@ -152,7 +289,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
     @Override
     public DataResult<JsonElement> mergeToList(final JsonElement list, final List<JsonElement> values) {
         if (!(list instanceof JsonArray) && list != empty()) {
-            return DataResult.error("mergeToList called with not a list: " + list, list);
+            return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
         }
 
         final JsonArray result = new JsonArray();
@@ -166,10 +303,10 @@ public class JsonOps implements DynamicOps<JsonElement> {
     @Override
     public DataResult<JsonElement> mergeToMap(final JsonElement map, final JsonElement key, final JsonElement value) {
         if (!(map instanceof JsonObject) && map != empty()) {
-            return DataResult.error("mergeToMap called with not a map: " + map, map);
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
         }
         if (!(key instanceof JsonPrimitive) || !key.getAsJsonPrimitive().isString() && !compressed) {
-            return DataResult.error("key is not a string: " + key, map);
+            return DataResult.error(() -> "key is not a string: " + key, map);
         }
 
         final JsonObject output = new JsonObject();
@@ -184,7 +321,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
     @Override
     public DataResult<JsonElement> mergeToMap(final JsonElement map, final MapLike<JsonElement> values) {
         if (!(map instanceof JsonObject) && map != empty()) {
-            return DataResult.error("mergeToMap called with not a map: " + map, map);
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
         }
 
         final JsonObject output = new JsonObject();
@@ -204,7 +341,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
         });
 
         if (!missed.isEmpty()) {
-            return DataResult.error("some keys are not strings: " + missed, output);
+            return DataResult.error(() -> "some keys are not strings: " + missed, output);
         }
 
         return DataResult.success(output);
@@ -213,7 +350,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
     @Override
     public DataResult<Stream<Pair<JsonElement, JsonElement>>> getMapValues(final JsonElement input) {
         if (!(input instanceof JsonObject)) {
-            return DataResult.error("Not a JSON object: " + input);
+            return DataResult.error(() -> "Not a JSON object: " + input);
         }
         return DataResult.success(input.getAsJsonObject().entrySet().stream().map(entry -> Pair.of(new JsonPrimitive(entry.getKey()), entry.getValue() instanceof JsonNull ? null : entry.getValue())));
     }
@@ -221,7 +358,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
     @Override
     public DataResult<Consumer<BiConsumer<JsonElement, JsonElement>>> getMapEntries(final JsonElement input) {
         if (!(input instanceof JsonObject)) {
-            return DataResult.error("Not a JSON object: " + input);
+            return DataResult.error(() -> "Not a JSON object: " + input);
         }
         return DataResult.success(c -> {
             for (final Map.Entry<String, JsonElement> entry : input.getAsJsonObject().entrySet()) {
@@ -233,7 +370,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
     @Override
     public DataResult<MapLike<JsonElement>> getMap(final JsonElement input) {
         if (!(input instanceof JsonObject)) {
-            return DataResult.error("Not a JSON object: " + input);
+            return DataResult.error(() -> "Not a JSON object: " + input);
         }
         final JsonObject object = input.getAsJsonObject();
         return DataResult.success(new MapLike<JsonElement>() {
@@ -257,6 +394,12 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 return element;
             }
 
+            @Nullable
+            @Override
+            public JsonElement get(final String name, final JsonElement key) {
+                return get(name);
+            }
+
             @Override
             public Stream<Pair<JsonElement, JsonElement>> entries() {
                 return object.entrySet().stream().map(e -> Pair.of(new JsonPrimitive(e.getKey()), e.getValue()));
@@ -281,7 +424,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
         if (input instanceof JsonArray) {
             return DataResult.success(StreamSupport.stream(input.getAsJsonArray().spliterator(), false).map(e -> e instanceof JsonNull ? null : e));
         }
-        return DataResult.error("Not a json array: " + input);
+        return DataResult.error(() -> "Not a json array: " + input);
     }
 
     @Override
@@ -293,7 +436,100 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 }
             });
         }
-        return DataResult.error("Not a json array: " + input);
+        return DataResult.error(() -> "Not a json array: " + input);
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final JsonElement input) {
+        if (!(input instanceof JsonArray)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final JsonArray array = input.getAsJsonArray();
+        final byte[] values = new byte[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            final JsonElement element = array.get(i);
+            if (isNumber(element)) {
+                values[i] = element.getAsByte();
+            } else {
+                final Optional<Byte> value = getByteValue(element).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not bytes: " + input);
+                }
+                values[i] = value.get();
+            }
+        }
+        return DataResult.success(ByteBuffer.wrap(values));
+    }
+
+    @Override
+    public JsonElement createByteList(final ByteBuffer input) {
+        final JsonArray result = new JsonArray();
+        for (int i = 0; i < input.capacity(); i++) {
+            result.add(input.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public DataResult<int[]> getIntArray(final JsonElement input) {
+        if (!(input instanceof JsonArray)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final JsonArray array = input.getAsJsonArray();
+        final int[] values = new int[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            final JsonElement element = array.get(i);
+            if (isNumber(element)) {
+                values[i] = element.getAsInt();
+            } else {
+                final Optional<Integer> value = getIntValue(element).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not ints: " + input);
+                }
+                values[i] = value.get();
+            }
+        }
+        return DataResult.success(values);
+    }
+
+    @Override
+    public JsonElement createIntList(final IntStream input) {
+        final JsonArray result = new JsonArray();
+        input.forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public DataResult<long[]> getLongArray(final JsonElement input) {
+        if (!(input instanceof JsonArray)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final JsonArray array = input.getAsJsonArray();
+        final long[] values = new long[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            final JsonElement element = array.get(i);
+            if (isNumber(element)) {
+                values[i] = element.getAsLong();
+            } else {
+                final Optional<Long> value = getLongValue(element).result();
+                if (!value.isPresent()) {
+                    return DataResult.error(() -> "Some elements are not longs: " + input);
+                }
+                values[i] = value.get();
+            }
+        }
+        return DataResult.success(values);
+    }
+
+    @Override
+    public JsonElement createLongList(final LongStream input) {
+        final JsonArray result = new JsonArray();
+        input.forEach(result::add);
+        return result;
+    }
+
+    private static boolean isNumber(final JsonElement element) {
+        return element instanceof JsonPrimitive && ((JsonPrimitive) element).isNumber();
     }
 
     @Override
@@ -324,7 +560,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
     }
 
     private static final class ArrayBuilder implements ListBuilder<JsonElement> {
-        private DataResult<JsonArray> builder = DataResult.success(new JsonArray(), Lifecycle.stable());
+        private final BuilderState<JsonArray> builder = new BuilderState<>(JsonArray::new);
 
         @Override
         public DynamicOps<JsonElement> ops() {
@@ -333,7 +569,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
 
         @Override
         public ListBuilder<JsonElement> add(final JsonElement value) {
-            builder = builder.map(b -> {
+            builder.map(b -> {
                 b.add(value);
                 return b;
             });
@@ -342,42 +578,40 @@ public class JsonOps implements DynamicOps<JsonElement> {
 
         @Override
         public ListBuilder<JsonElement> add(final DataResult<JsonElement> value) {
-            builder = builder.apply2stable((b, element) -> {
+            builder.apply(value, (b, element) -> {
                 b.add(element);
                 return b;
-            }, value);
+            });
             return this;
         }
 
         @Override
         public ListBuilder<JsonElement> withErrorsFrom(final DataResult<?> result) {
-            builder = builder.flatMap(r -> result.map(v -> r));
+            builder.withErrorsFrom(result);
             return this;
         }
 
         @Override
         public ListBuilder<JsonElement> mapError(final UnaryOperator<String> onError) {
-            builder = builder.mapError(onError);
+            builder.mapError(onError);
             return this;
         }
 
         @Override
         public DataResult<JsonElement> build(final JsonElement prefix) {
-            final DataResult<JsonElement> result = builder.flatMap(b -> {
+            return builder.build(b -> {
                 if (!(prefix instanceof JsonArray) && prefix != ops().empty()) {
-                    return DataResult.error("Cannot append a list to not a list: " + prefix, prefix);
+                    return DataResult.error(() -> "Cannot append a list to not a list: " + prefix, prefix);
+                }
+                if (prefix == ops().empty()) {
+                    return DataResult.success(b, Lifecycle.stable());
                 }
 
                 final JsonArray array = new JsonArray();
-                if (prefix != ops().empty()) {
-                    array.addAll(prefix.getAsJsonArray());
-                }
+                array.addAll(prefix.getAsJsonArray());
                 array.addAll(b);
                 return DataResult.success(array, Lifecycle.stable());
             });
-
-            builder = DataResult.success(new JsonArray(), Lifecycle.stable());
-            return result;
         }
     }
 
@@ -391,6 +625,49 @@ public class JsonOps implements DynamicOps<JsonElement> {
         return new JsonRecordBuilder();
     }
 
+    private class JsonVisitor extends ValueVisitor.OpsVisitor<JsonElement> {
+        protected JsonVisitor() {
+            super(JsonOps.this);
+        }
+
+        @Override
+        public ValueVisitor.ListVisitor<JsonElement> visitList(final int size) {
+            final JsonArray array = new JsonArray();
+            return new ValueVisitor.ListVisitor<JsonElement>() {
+                @Override
+                public void visitElement(final JsonElement value) {
+                    array.add(value);
+                }
+
+                @Override
+                public JsonElement visitEnd() {
+                    return array;
+                }
+            };
+        }
+
+        @Override
+        public ValueVisitor.MapVisitor<JsonElement> visitMap(final int size) {
+            final JsonObject object = new JsonObject();
+            return new ValueVisitor.MapVisitor<JsonElement>() {
+                @Override
+                public void visitEntry(final String key, final JsonElement value) {
+                    object.add(key, value);
+                }
+
+                @Override
+                public void visitEntry(final JsonElement key, final JsonElement value) {
+                    object.add(key.getAsString(), value);
+                }
+
+                @Override
+                public JsonElement visitEnd() {
+                    return object;
+                }
+            };
+        }
+    }
+
     private class JsonRecordBuilder extends RecordBuilder.AbstractStringBuilder<JsonElement, JsonObject> {
         protected JsonRecordBuilder() {
             super(JsonOps.this);
@@ -422,7 +699,7 @@ public class JsonOps implements DynamicOps<JsonElement> {
                 }
                 return DataResult.success(result);
             }
-            return DataResult.error("mergeToMap called with not a map: " + prefix, prefix);
+            return DataResult.error(() -> "mergeToMap called with not a map: " + prefix, prefix);
         }
     }
 }
@@ -2,17 +2,22 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.objects.Object2IntArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
+/**
+ * Maps the keys of a record to their positions. Lookups are hashed, and the compressor is not modified after it is
+ * built, so it can be shared between threads.
+ */
 public final class KeyCompressor<T> {
-    private final Int2ObjectMap<T> decompress = new Int2ObjectArrayMap<>();
-    private final Object2IntMap<T> compress = new Object2IntArrayMap<>();
-    private final Object2IntMap<String> compressString = new Object2IntArrayMap<>();
+    private final List<T> decompress = new ArrayList<>();
+    private final Object2IntMap<T> compress = new Object2IntOpenHashMap<>();
+    private final Object2IntMap<String> compressString = new Object2IntOpenHashMap<>();
     private final int size;
     private final DynamicOps<T> ops;
 
@@ -30,14 +35,15 @@ public final class KeyCompressor<T> {
             ops.getStringValue(key).result().ifPresent(k ->
                 compressString.put(k, next)
             );
-            decompress.put(next, key);
+            decompress.add(key);
         });
 
         size = compress.size();
     }
 
+    @Nullable
     public T decompress(final int key) {
-        return decompress.get(key);
+        return key >= 0 && key < size ? decompress.get(key) : null;
     }
 
     public int compress(final String key) {
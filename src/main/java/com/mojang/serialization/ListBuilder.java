@@ -34,7 +34,7 @@ public interface ListBuilder<T> {
 
     final class Builder<T> implements ListBuilder<T> {
         private final DynamicOps<T> ops;
-        private DataResult<ImmutableList.Builder<T>> builder = DataResult.success(ImmutableList.builder(), Lifecycle.stable());
+        private final BuilderState<ImmutableList.Builder<T>> builder = new BuilderState<>(ImmutableList::builder);
 
         public Builder(final DynamicOps<T> ops) {
             this.ops = ops;
@@ -47,33 +47,31 @@ public interface ListBuilder<T> {
 
         @Override
         public ListBuilder<T> add(final T value) {
-            builder = builder.map(b -> b.add(value));
+            builder.map(b -> b.add(value));
             return this;
         }
 
         @Override
         public ListBuilder<T> add(final DataResult<T> value) {
-            builder = builder.apply2stable(ImmutableList.Builder::add, value);
+            builder.apply(value, ImmutableList.Builder::add);
             return this;
         }
 
         @Override
         public ListBuilder<T> withErrorsFrom(final DataResult<?> result) {
-            builder = builder.flatMap(r -> result.map(v -> r));
+            builder.withErrorsFrom(result);
             return this;
         }
 
         @Override
         public ListBuilder<T> mapError(final UnaryOperator<String> onError) {
-            builder = builder.mapError(onError);
+            builder.mapError(onError);
             return this;
         }
 
         @Override
         public DataResult<T> build(final T prefix) {
-            final DataResult<T> result = builder.flatMap(b -> ops.mergeToList(prefix, b.build()));
-            builder = DataResult.success(ImmutableList.builder(), Lifecycle.stable());
-            return result;
+            return builder.build(b -> ops.mergeToList(prefix, b.build()));
         }
     }
 }
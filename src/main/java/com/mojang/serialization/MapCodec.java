@@ -96,6 +96,14 @@ public abstract class MapCodec<A> extends CompressorHolder implements MapDecoder
             return codec.encode(input, ops, codec.compressedBuilder(ops)).build(prefix);
         }
 
+        @Override
+        public <T> RecordBuilder<T> encodeFields(final A input, final DynamicOps<T> ops, final RecordBuilder<T> builder) {
+            if (ops.compressMaps()) {
+                return Codec.super.encodeFields(input, ops, builder);
+            }
+            return codec.encode(input, ops, builder);
+        }
+
         @Override
         public String toString() {
             return codec.toString();
@@ -16,6 +16,14 @@ import java.util.stream.Stream;
 public interface MapDecoder<A> extends Keyable {
     <T> DataResult<A> decode(DynamicOps<T> ops, MapLike<T> input);
 
+    /**
+     * Decodes a map that was read from the given value. Decoders that need the whole input can use it
+     * instead of rebuilding it from the entries.
+     */
+    default <T> DataResult<A> decode(final DynamicOps<T> ops, final MapLike<T> input, final T source) {
+        return decode(ops, input);
+    }
+
     default <T> DataResult<A> compressedDecode(final DynamicOps<T> ops, final T input) {
         if (ops.compressMaps()) {
             final Optional<Consumer<Consumer<T>>> inputList = ops.getList(input).result();
@@ -26,19 +34,26 @@ public interface MapDecoder<A> extends Keyable {
 
             final KeyCompressor<T> compressor = compressor(ops);
             final List<T> entries = new ArrayList<>();
-            inputList.get().accept(entries::add);
+            // missing fields are written as empty values, read them back as missing
+            final T empty = ops.empty();
+            inputList.get().accept(entry -> entries.add(empty.equals(entry) ? null : entry));
 
             final MapLike<T> map = new MapLike<T>() {
                 @Nullable
                 @Override
                 public T get(final T key) {
-                    return entries.get(compressor.compress(key));
+                    return get(compressor.compress(key));
                 }
 
                 @Nullable
                 @Override
                 public T get(final String key) {
-                    return entries.get(compressor.compress(key));
+                    return get(compressor.compress(key));
+                }
+
+                @Nullable
+                private T get(final int index) {
+                    return index < entries.size() ? entries.get(index) : null;
                 }
 
                 @Override
@@ -49,7 +64,7 @@ public interface MapDecoder<A> extends Keyable {
             return decode(ops, map);
         }
         // will use the lifecycle of decode
-        return ops.getMap(input).setLifecycle(Lifecycle.stable()).flatMap(map -> decode(ops, map));
+        return ops.getMap(input).setLifecycle(Lifecycle.stable()).flatMap(map -> decode(ops, map, input));
     }
 
     <T> KeyCompressor<T> compressor(DynamicOps<T> ops);
@@ -15,6 +15,14 @@ public interface MapLike<T> {
     @Nullable
     T get(final String key);
 
+    /**
+     * Looks up a field by its name and the key prebuilt for it, implementations use whichever form they index by.
+     */
+    @Nullable
+    default T get(final String name, final T key) {
+        return get(key);
+    }
+
     Stream<Pair<T, T>> entries();
 
     static <T> MapLike<T> forMap(final Map<T, T> map, final DynamicOps<T> ops) {
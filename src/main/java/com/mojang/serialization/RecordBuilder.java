@@ -2,8 +2,10 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import com.google.common.collect.ImmutableMap;
+import com.mojang.datafixers.util.Pair;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.UnaryOperator;
 
 public interface RecordBuilder<T> {
@@ -39,8 +41,19 @@ public interface RecordBuilder<T> {
         return add(key, encoder.encodeStart(ops(), value));
     }
 
+    /**
+     * Adds a field by its name and the key prebuilt for it, implementations use whichever form they store.
+     */
+    default RecordBuilder<T> add(final String name, final T key, final DataResult<T> value) {
+        return add(key, value);
+    }
+
     abstract class AbstractBuilder<T, R> implements RecordBuilder<T> {
         private final DynamicOps<T> ops;
+        /**
+         * While it succeeds, the accumulator inside is updated in place: adding an entry only creates a new result when
+         * the accumulator or the lifecycle changes.
+         */
         protected DataResult<R> builder = DataResult.success(initBuilder(), Lifecycle.stable());
 
         protected AbstractBuilder(final DynamicOps<T> ops) {
@@ -56,6 +69,12 @@ public interface RecordBuilder<T> {
 
         protected abstract DataResult<T> build(final R builder, final T prefix);
 
+        final void update(final R value, final Lifecycle lifecycle) {
+            if (value != builder.value() || lifecycle != builder.lifecycle()) {
+                builder = DataResult.success(value, lifecycle);
+            }
+        }
+
         @Override
         public DataResult<T> build(final T prefix) {
             final DataResult<T> result = builder.flatMap(b -> build(b, prefix));
@@ -65,7 +84,11 @@ public interface RecordBuilder<T> {
 
         @Override
         public RecordBuilder<T> withErrorsFrom(final DataResult<?> result) {
-            builder = builder.flatMap(v -> result.map(r -> v));
+            if (builder.isSuccess() && result.isSuccess()) {
+                update(builder.value(), builder.lifecycle().add(result.lifecycle()));
+            } else {
+                builder = builder.flatMap(v -> result.map(r -> v));
+            }
             return this;
         }
 
@@ -91,41 +114,54 @@ public interface RecordBuilder<T> {
 
         @Override
         public RecordBuilder<T> add(final String key, final T value) {
-            builder = builder.map(b -> append(key, value, b));
+            if (builder.isSuccess()) {
+                update(append(key, value, builder.value()), builder.lifecycle());
+            } else {
+                builder = builder.map(b -> append(key, value, b));
+            }
             return this;
         }
 
         @Override
         public RecordBuilder<T> add(final String key, final DataResult<T> value) {
-            builder = builder.apply2stable((b, v) -> append(key, v, b), value);
+            if (builder.isSuccess() && value.isSuccess()) {
+                update(append(key, value.value(), builder.value()), builder.lifecycle().add(value.lifecycle()));
+            } else {
+                builder = builder.apply2stable((b, v) -> append(key, v, b), value);
+            }
             return this;
         }
 
+        @Override
+        public RecordBuilder<T> add(final String name, final T key, final DataResult<T> value) {
+            return add(name, value);
+        }
+
         @Override
         public RecordBuilder<T> add(final T key, final T value) {
-            builder = ops().getStringValue(key).flatMap(k -> {
-                add(k, value);
-                return builder;
-            });
-            return this;
+            final DataResult<String> name = ops().getStringValue(key);
+            if (name.isSuccess()) {
+                add(name.value(), value);
+            }
+            return withErrorsFrom(name);
         }
 
         @Override
         public RecordBuilder<T> add(final T key, final DataResult<T> value) {
-            builder = ops().getStringValue(key).flatMap(k -> {
-                add(k, value);
-                return builder;
-            });
-            return this;
+            final DataResult<String> name = ops().getStringValue(key);
+            if (name.isSuccess()) {
+                add(name.value(), value);
+            }
+            return withErrorsFrom(name);
         }
 
         @Override
         public RecordBuilder<T> add(final DataResult<T> key, final DataResult<T> value) {
-            builder = key.flatMap(ops()::getStringValue).flatMap(k -> {
-                add(k, value);
-                return builder;
-            });
-            return this;
+            final DataResult<String> name = key.flatMap(ops()::getStringValue);
+            if (name.isSuccess()) {
+                add(name.value(), value);
+            }
+            return withErrorsFrom(name);
         }
     }
 
@@ -138,41 +174,59 @@ public interface RecordBuilder<T> {
 
         @Override
         public RecordBuilder<T> add(final T key, final T value) {
-            builder = builder.map(b -> append(key, value, b));
+            if (builder.isSuccess()) {
+                update(append(key, value, builder.value()), builder.lifecycle());
+            } else {
+                builder = builder.map(b -> append(key, value, b));
+            }
             return this;
         }
 
         @Override
         public RecordBuilder<T> add(final T key, final DataResult<T> value) {
-            builder = builder.apply2stable((b, v) -> append(key, v, b), value);
+            if (builder.isSuccess() && value.isSuccess()) {
+                update(append(key, value.value(), builder.value()), builder.lifecycle().add(value.lifecycle()));
+            } else {
+                builder = builder.apply2stable((b, v) -> append(key, v, b), value);
+            }
             return this;
         }
 
         @Override
         public RecordBuilder<T> add(final DataResult<T> key, final DataResult<T> value) {
-            builder = builder.ap(key.apply2stable((k, v) -> b -> append(k, v, b), value));
+            if (builder.isSuccess() && key.isSuccess() && value.isSuccess()) {
+                update(append(key.value(), value.value(), builder.value()), builder.lifecycle().add(key.lifecycle()).add(value.lifecycle()));
+            } else {
+                builder = builder.ap(key.apply2stable((k, v) -> b -> append(k, v, b), value));
+            }
             return this;
         }
     }
 
-    final class MapBuilder<T> extends AbstractUniversalBuilder<T, ImmutableMap.Builder<T, T>> {
+    /**
+     * Collects entries in insertion order. Adding a key twice keeps the last value, as merging the entries into the
+     * map one by one does, instead of failing the build on the duplicate.
+     */
+    final class MapBuilder<T> extends AbstractUniversalBuilder<T, Map<T, T>> {
         public MapBuilder(final DynamicOps<T> ops) {
             super(ops);
         }
 
         @Override
-        protected ImmutableMap.Builder<T, T> initBuilder() {
-            return ImmutableMap.builder();
+        protected Map<T, T> initBuilder() {
+            return new LinkedHashMap<>();
         }
 
         @Override
-        protected ImmutableMap.Builder<T, T> append(final T key, final T value, final ImmutableMap.Builder<T, T> builder) {
-            return builder.put(key, value);
+        protected Map<T, T> append(final T key, final T value, final Map<T, T> builder) {
+            // later entries win, like merging them into the map one by one
+            builder.put(key, value);
+            return builder;
         }
 
         @Override
-        protected DataResult<T> build(final ImmutableMap.Builder<T, T> builder, final T prefix) {
-            return ops().mergeToMap(prefix, builder.build());
+        protected DataResult<T> build(final Map<T, T> builder, final T prefix) {
+            return ops().mergeToMap(prefix, builder);
         }
     }
 }
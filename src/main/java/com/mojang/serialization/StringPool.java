@@ -0,0 +1,50 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool that deduplicates equal strings, safe to share between threads. Each string hashes to one slot, which
+ * holds the last string seen there, so frequent strings like ids and field names are returned as one instance while
+ * rare ones get replaced. The pool never grows and never blocks. Long strings are not pooled.
+ */
+public final class StringPool {
+    private static final int MAX_LENGTH = 256;
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public StringPool(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        final int size = capacity > 1 << 30 ? 1 << 30 : Math.max(1, Integer.highestOneBit(capacity - 1) << 1);
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Returns a pooled string equal to the value, or the value itself after pooling it.
+     */
+    public String intern(final String value) {
+        if (value.length() > MAX_LENGTH) {
+            return value;
+        }
+        final int h = value.hashCode();
+        final int slot = (h ^ (h >>> 16)) & mask;
+        final String pooled = slots.get(slot);
+        if (pooled != null && pooled.equals(value)) {
+            return pooled;
+        }
+        slots.lazySet(slot, value);
+        return value;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
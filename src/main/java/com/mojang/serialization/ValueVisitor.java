@@ -0,0 +1,201 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Receives a value one piece at a time and builds it in the format of {@link #ops()}. {@link DynamicOps#visit} walks
+ * a value of one format into the visitor of another, so converting between formats needs no intermediate pairs or
+ * streams. Lists and maps are visited by asking for a {@link ListVisitor} or {@link MapVisitor}, passing it every
+ * converted child and then ending it.
+ */
+public interface ValueVisitor<T> {
+    DynamicOps<T> ops();
+
+    T visitEmpty();
+
+    T visitBoolean(boolean value);
+
+    T visitByte(byte value);
+
+    T visitShort(short value);
+
+    T visitInt(int value);
+
+    T visitLong(long value);
+
+    T visitFloat(float value);
+
+    T visitDouble(double value);
+
+    /**
+     * Numbers whose type is not one of the primitive ones.
+     */
+    T visitNumber(Number value);
+
+    T visitString(String value);
+
+    /**
+     * The visitor takes ownership of the array.
+     */
+    T visitByteArray(byte[] values);
+
+    /**
+     * The visitor takes ownership of the array.
+     */
+    T visitIntArray(int[] values);
+
+    /**
+     * The visitor takes ownership of the array.
+     */
+    T visitLongArray(long[] values);
+
+    /**
+     * @param size the number of elements that will be visited, or -1 if not known
+     */
+    ListVisitor<T> visitList(int size);
+
+    /**
+     * @param size the number of entries that will be visited, or -1 if not known
+     */
+    MapVisitor<T> visitMap(int size);
+
+    interface ListVisitor<T> {
+        void visitElement(T value);
+
+        T visitEnd();
+    }
+
+    interface MapVisitor<T> {
+        void visitEntry(String key, T value);
+
+        void visitEntry(T key, T value);
+
+        T visitEnd();
+    }
+
+    /**
+     * Builds values through the create methods of the ops. Lists and maps are collected and created at once.
+     */
+    class OpsVisitor<T> implements ValueVisitor<T> {
+        private final DynamicOps<T> ops;
+
+        public OpsVisitor(final DynamicOps<T> ops) {
+            this.ops = ops;
+        }
+
+        @Override
+        public DynamicOps<T> ops() {
+            return ops;
+        }
+
+        @Override
+        public T visitEmpty() {
+            return ops.empty();
+        }
+
+        @Override
+        public T visitBoolean(final boolean value) {
+            return ops.createBoolean(value);
+        }
+
+        @Override
+        public T visitByte(final byte value) {
+            return ops.createByte(value);
+        }
+
+        @Override
+        public T visitShort(final short value) {
+            return ops.createShort(value);
+        }
+
+        @Override
+        public T visitInt(final int value) {
+            return ops.createInt(value);
+        }
+
+        @Override
+        public T visitLong(final long value) {
+            return ops.createLong(value);
+        }
+
+        @Override
+        public T visitFloat(final float value) {
+            return ops.createFloat(value);
+        }
+
+        @Override
+        public T visitDouble(final double value) {
+            return ops.createDouble(value);
+        }
+
+        @Override
+        public T visitNumber(final Number value) {
+            return ops.createNumeric(value);
+        }
+
+        @Override
+        public T visitString(final String value) {
+            return ops.createString(value);
+        }
+
+        @Override
+        public T visitByteArray(final byte[] values) {
+            return ops.createByteList(ByteBuffer.wrap(values));
+        }
+
+        @Override
+        public T visitIntArray(final int[] values) {
+            return ops.createIntList(IntStream.of(values));
+        }
+
+        @Override
+        public T visitLongArray(final long[] values) {
+            return ops.createLongList(LongStream.of(values));
+        }
+
+        @Override
+        public ListVisitor<T> visitList(final int size) {
+            final List<T> elements = new ArrayList<>(Math.max(size, 0));
+            return new ListVisitor<T>() {
+                @Override
+                public void visitElement(final T value) {
+                    elements.add(value);
+                }
+
+                @Override
+                public T visitEnd() {
+                    return ops.createList(elements.stream());
+                }
+            };
+        }
+
+        @Override
+        public MapVisitor<T> visitMap(final int size) {
+            final Map<T, T> entries = new LinkedHashMap<>();
+            return new MapVisitor<T>() {
+                @Override
+                public void visitEntry(final String key, final T value) {
+                    entries.put(ops.createString(key), value);
+                }
+
+                @Override
+                public void visitEntry(final T key, final T value) {
+                    entries.put(key, value);
+                }
+
+                @Override
+                public T visitEnd() {
+                    return ops.createMap(entries);
+                }
+            };
+        }
+    }
+}
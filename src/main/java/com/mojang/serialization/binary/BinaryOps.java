@@ -0,0 +1,580 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.binary;
+
+import com.google.common.collect.Lists;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
+import com.mojang.serialization.ValueVisitor;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Ops over {@link BinaryTag} trees, which keep numbers as primitives and maps and lists as arrays.
+ * Use {@link BinaryTagIO} to store them in their compact binary form.
+ */
+public class BinaryOps implements DynamicOps<BinaryTag> {
+    public static final BinaryOps INSTANCE = new BinaryOps();
+
+    protected BinaryOps() {
+    }
+
+    @Override
+    public BinaryTag empty() {
+        return BinaryTag.EMPTY;
+    }
+
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final BinaryTag input) {
+        return visit(input, outOps.visitor());
+    }
+
+    @Override
+    public <U> U visit(final BinaryTag input, final ValueVisitor<U> visitor) {
+        switch (input.type()) {
+            case BinaryTag.END:
+                return visitor.visitEmpty();
+            case BinaryTag.BYTE:
+                return visitor.visitByte(((BinaryTag.NumericTag) input).byteValue());
+            case BinaryTag.SHORT:
+                return visitor.visitShort(((BinaryTag.NumericTag) input).shortValue());
+            case BinaryTag.INT:
+                return visitor.visitInt(((BinaryTag.NumericTag) input).intValue());
+            case BinaryTag.LONG:
+                return visitor.visitLong(((BinaryTag.NumericTag) input).longValue());
+            case BinaryTag.FLOAT:
+                return visitor.visitFloat(((BinaryTag.NumericTag) input).floatValue());
+            case BinaryTag.DOUBLE:
+                return visitor.visitDouble(((BinaryTag.NumericTag) input).doubleValue());
+            case BinaryTag.STRING:
+                return visitor.visitString(((BinaryTag.StringTag) input).value());
+            case BinaryTag.BYTE_ARRAY:
+                return visitor.visitByteArray(((BinaryTag.ByteArrayTag) input).toArray());
+            case BinaryTag.INT_ARRAY:
+                return visitor.visitIntArray(((BinaryTag.IntArrayTag) input).toArray());
+            case BinaryTag.LONG_ARRAY:
+                return visitor.visitLongArray(((BinaryTag.LongArrayTag) input).toArray());
+            case BinaryTag.LIST: {
+                final BinaryTag.ListTag list = (BinaryTag.ListTag) input;
+                final ValueVisitor.ListVisitor<U> output = visitor.visitList(list.size());
+                list.forEach(element -> output.visitElement(visit(element, visitor)));
+                return output.visitEnd();
+            }
+            case BinaryTag.MAP: {
+                final BinaryTag.MapTag map = (BinaryTag.MapTag) input;
+                final ValueVisitor.MapVisitor<U> output = visitor.visitMap(map.size());
+                map.forEach((key, value) -> output.visitEntry(key, visit(value, visitor)));
+                return output.visitEnd();
+            }
+            default:
+                throw new IllegalStateException("Unknown tag type: " + input.type());
+        }
+    }
+
+    @Override
+    public ValueVisitor<BinaryTag> visitor() {
+        return new BinaryVisitor();
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).number());
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Byte> getByteValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).byteValue());
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Short> getShortValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).shortValue());
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Integer> getIntValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).intValue());
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Long> getLongValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).longValue());
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Float> getFloatValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).floatValue());
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public DataResult<Double> getDoubleValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).doubleValue());
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public int getIntValue(final BinaryTag input, final int defaultValue) {
+        return input instanceof BinaryTag.NumericTag ? ((BinaryTag.NumericTag) input).intValue() : defaultValue;
+    }
+
+    @Override
+    public long getLongValue(final BinaryTag input, final long defaultValue) {
+        return input instanceof BinaryTag.NumericTag ? ((BinaryTag.NumericTag) input).longValue() : defaultValue;
+    }
+
+    @Override
+    public float getFloatValue(final BinaryTag input, final float defaultValue) {
+        return input instanceof BinaryTag.NumericTag ? ((BinaryTag.NumericTag) input).floatValue() : defaultValue;
+    }
+
+    @Override
+    public double getDoubleValue(final BinaryTag input, final double defaultValue) {
+        return input instanceof BinaryTag.NumericTag ? ((BinaryTag.NumericTag) input).doubleValue() : defaultValue;
+    }
+
+    @Override
+    public BinaryTag createNumeric(final Number i) {
+        if (i instanceof Byte) {
+            return createByte(i.byteValue());
+        }
+        if (i instanceof Short) {
+            return createShort(i.shortValue());
+        }
+        if (i instanceof Integer) {
+            return createInt(i.intValue());
+        }
+        if (i instanceof Long) {
+            return createLong(i.longValue());
+        }
+        if (i instanceof Float) {
+            return createFloat(i.floatValue());
+        }
+        if (i instanceof BigInteger || i instanceof BigDecimal && ((BigDecimal) i).scale() <= 0) {
+            return createLong(i.longValue());
+        }
+        return createDouble(i.doubleValue());
+    }
+
+    @Override
+    public BinaryTag createByte(final byte value) {
+        return BinaryTag.ByteTag.of(value);
+    }
+
+    @Override
+    public BinaryTag createShort(final short value) {
+        return new BinaryTag.ShortTag(value);
+    }
+
+    @Override
+    public BinaryTag createInt(final int value) {
+        return new BinaryTag.IntTag(value);
+    }
+
+    @Override
+    public BinaryTag createLong(final long value) {
+        return new BinaryTag.LongTag(value);
+    }
+
+    @Override
+    public BinaryTag createFloat(final float value) {
+        return new BinaryTag.FloatTag(value);
+    }
+
+    @Override
+    public BinaryTag createDouble(final double value) {
+        return new BinaryTag.DoubleTag(value);
+    }
+
+    @Override
+    public BinaryTag createBoolean(final boolean value) {
+        return createByte((byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.NumericTag) {
+            return DataResult.success(((BinaryTag.NumericTag) input).byteValue() != 0);
+        }
+        return DataResult.error(() -> "Not a boolean: " + input);
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final BinaryTag input) {
+        if (input instanceof BinaryTag.StringTag) {
+            return DataResult.success(((BinaryTag.StringTag) input).value());
+        }
+        return DataResult.error(() -> "Not a string: " + input);
+    }
+
+    @Override
+    public BinaryTag createString(final String value) {
+        return new BinaryTag.StringTag(value);
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToList(final BinaryTag list, final BinaryTag value) {
+        return mergeToList(list, Lists.newArrayList(value));
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToList(final BinaryTag list, final List<BinaryTag> values) {
+        if (list == empty()) {
+            return DataResult.success(new BinaryTag.ArrayListTag(values.toArray(new BinaryTag[0])));
+        }
+        final DataResult<List<BinaryTag>> elements = elements(list);
+        if (!elements.result().isPresent()) {
+            return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+        }
+        final List<BinaryTag> result = elements.result().get();
+        result.addAll(values);
+        return DataResult.success(new BinaryTag.ArrayListTag(result.toArray(new BinaryTag[0])));
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToMap(final BinaryTag map, final BinaryTag key, final BinaryTag value) {
+        if (!(map instanceof BinaryTag.MapTag) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        if (!(key instanceof BinaryTag.StringTag)) {
+            return DataResult.error(() -> "key is not a string: " + key, map);
+        }
+        final Map<String, BinaryTag> result = copy(map);
+        result.put(((BinaryTag.StringTag) key).value(), value);
+        return DataResult.success(BinaryTag.ArrayMapTag.copyOf(result));
+    }
+
+    @Override
+    public DataResult<BinaryTag> mergeToMap(final BinaryTag map, final MapLike<BinaryTag> values) {
+        if (!(map instanceof BinaryTag.MapTag) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        final Map<String, BinaryTag> result = copy(map);
+        final List<BinaryTag> missed = Lists.newArrayList();
+        values.entries().forEach(entry -> {
+            final BinaryTag key = entry.getFirst();
+            if (!(key instanceof BinaryTag.StringTag)) {
+                missed.add(key);
+                return;
+            }
+            result.put(((BinaryTag.StringTag) key).value(), entry.getSecond());
+        });
+        final BinaryTag output = BinaryTag.ArrayMapTag.copyOf(result);
+        if (!missed.isEmpty()) {
+            return DataResult.error(() -> "some keys are not strings: " + missed, output);
+        }
+        return DataResult.success(output);
+    }
+
+    private static Map<String, BinaryTag> copy(final BinaryTag map) {
+        final Map<String, BinaryTag> result = new LinkedHashMap<>();
+        if (map instanceof BinaryTag.MapTag) {
+            ((BinaryTag.MapTag) map).forEach(result::put);
+        }
+        return result;
+    }
+
+    @Override
+    public DataResult<Stream<Pair<BinaryTag, BinaryTag>>> getMapValues(final BinaryTag input) {
+        if (!(input instanceof BinaryTag.MapTag)) {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+        final List<Pair<BinaryTag, BinaryTag>> entries = new ArrayList<>(((BinaryTag.MapTag) input).size());
+        ((BinaryTag.MapTag) input).forEach((key, value) -> entries.add(Pair.of(createString(key), value)));
+        return DataResult.success(entries.stream());
+    }
+
+    @Override
+    public DataResult<Consumer<BiConsumer<BinaryTag, BinaryTag>>> getMapEntries(final BinaryTag input) {
+        if (!(input instanceof BinaryTag.MapTag)) {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+        return DataResult.success(c -> ((BinaryTag.MapTag) input).forEach((key, value) -> c.accept(createString(key), value)));
+    }
+
+    @Override
+    public DataResult<MapLike<BinaryTag>> getMap(final BinaryTag input) {
+        if (!(input instanceof BinaryTag.MapTag)) {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+        final BinaryTag.MapTag map = (BinaryTag.MapTag) input;
+        return DataResult.success(new MapLike<BinaryTag>() {
+            @Nullable
+            @Override
+            public BinaryTag get(final BinaryTag key) {
+                return key instanceof BinaryTag.StringTag ? map.get(((BinaryTag.StringTag) key).value()) : null;
+            }
+
+            @Nullable
+            @Override
+            public BinaryTag get(final String key) {
+                return map.get(key);
+            }
+
+            @Nullable
+            @Override
+            public BinaryTag get(final String name, final BinaryTag key) {
+                return map.get(name);
+            }
+
+            @Override
+            public Stream<Pair<BinaryTag, BinaryTag>> entries() {
+                return getMapValues(map).result().orElseGet(Stream::empty);
+            }
+
+            @Override
+            public String toString() {
+                return "MapLike[" + map + "]";
+            }
+        });
+    }
+
+    @Override
+    public BinaryTag createMap(final Stream<Pair<BinaryTag, BinaryTag>> map) {
+        final Map<String, BinaryTag> result = new LinkedHashMap<>();
+        map.forEach(p -> result.put(((BinaryTag.StringTag) p.getFirst()).value(), p.getSecond()));
+        return BinaryTag.ArrayMapTag.copyOf(result);
+    }
+
+    @Override
+    public DataResult<Stream<BinaryTag>> getStream(final BinaryTag input) {
+        return elements(input).map(List::stream);
+    }
+
+    @Override
+    public DataResult<Consumer<Consumer<BinaryTag>>> getList(final BinaryTag input) {
+        if (input instanceof BinaryTag.ListTag) {
+            return DataResult.success(((BinaryTag.ListTag) input)::forEach);
+        }
+        return elements(input).map(list -> list::forEach);
+    }
+
+    private DataResult<List<BinaryTag>> elements(final BinaryTag input) {
+        final List<BinaryTag> result;
+        switch (input.type()) {
+            case BinaryTag.LIST: {
+                final BinaryTag.ListTag list = (BinaryTag.ListTag) input;
+                result = new ArrayList<>(list.size());
+                list.forEach(result::add);
+                break;
+            }
+            case BinaryTag.BYTE_ARRAY: {
+                final BinaryTag.ByteArrayTag array = (BinaryTag.ByteArrayTag) input;
+                result = new ArrayList<>(array.size());
+                for (int i = 0; i < array.size(); i++) {
+                    result.add(createByte(array.get(i)));
+                }
+                break;
+            }
+            case BinaryTag.INT_ARRAY: {
+                final BinaryTag.IntArrayTag array = (BinaryTag.IntArrayTag) input;
+                result = new ArrayList<>(array.size());
+                for (int i = 0; i < array.size(); i++) {
+                    result.add(createInt(array.get(i)));
+                }
+                break;
+            }
+            case BinaryTag.LONG_ARRAY: {
+                final BinaryTag.LongArrayTag array = (BinaryTag.LongArrayTag) input;
+                result = new ArrayList<>(array.size());
+                for (int i = 0; i < array.size(); i++) {
+                    result.add(createLong(array.get(i)));
+                }
+                break;
+            }
+            default:
+                return DataResult.error(() -> "Not a list: " + input);
+        }
+        return DataResult.success(result);
+    }
+
+    @Override
+    public BinaryTag createList(final Stream<BinaryTag> input) {
+        return new BinaryTag.ArrayListTag(input.toArray(BinaryTag[]::new));
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final BinaryTag input) {
+        if (input instanceof BinaryTag.ByteArrayTag) {
+            return DataResult.success(ByteBuffer.wrap(((BinaryTag.ByteArrayTag) input).toArray()));
+        }
+        return DynamicOps.super.getByteBuffer(input);
+    }
+
+    @Override
+    public BinaryTag createByteList(final ByteBuffer input) {
+        final byte[] values = new byte[input.capacity()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = input.get(i);
+        }
+        return new BinaryTag.ByteArrayTag(values);
+    }
+
+    @Override
+    public DataResult<int[]> getIntArray(final BinaryTag input) {
+        if (input instanceof BinaryTag.IntArrayTag) {
+            return DataResult.success(((BinaryTag.IntArrayTag) input).toArray());
+        }
+        return DynamicOps.super.getIntArray(input);
+    }
+
+    @Override
+    public BinaryTag createIntList(final IntStream input) {
+        return new BinaryTag.IntArrayTag(input.toArray());
+    }
+
+    @Override
+    public DataResult<long[]> getLongArray(final BinaryTag input) {
+        if (input instanceof BinaryTag.LongArrayTag) {
+            return DataResult.success(((BinaryTag.LongArrayTag) input).toArray());
+        }
+        return DynamicOps.super.getLongArray(input);
+    }
+
+    @Override
+    public BinaryTag createLongList(final LongStream input) {
+        return new BinaryTag.LongArrayTag(input.toArray());
+    }
+
+    @Override
+    public BinaryTag remove(final BinaryTag input, final String key) {
+        if (input instanceof BinaryTag.MapTag && ((BinaryTag.MapTag) input).get(key) != null) {
+            final Map<String, BinaryTag> result = copy(input);
+            result.remove(key);
+            return BinaryTag.ArrayMapTag.copyOf(result);
+        }
+        return input;
+    }
+
+    @Override
+    public RecordBuilder<BinaryTag> mapBuilder() {
+        return new BinaryRecordBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "Binary";
+    }
+
+    private class BinaryVisitor extends ValueVisitor.OpsVisitor<BinaryTag> {
+        protected BinaryVisitor() {
+            super(BinaryOps.this);
+        }
+
+        @Override
+        public BinaryTag visitByteArray(final byte[] values) {
+            return new BinaryTag.ByteArrayTag(values);
+        }
+
+        @Override
+        public BinaryTag visitIntArray(final int[] values) {
+            return new BinaryTag.IntArrayTag(values);
+        }
+
+        @Override
+        public BinaryTag visitLongArray(final long[] values) {
+            return new BinaryTag.LongArrayTag(values);
+        }
+
+        @Override
+        public ValueVisitor.ListVisitor<BinaryTag> visitList(final int size) {
+            final List<BinaryTag> elements = new ArrayList<>(Math.max(size, 0));
+            return new ValueVisitor.ListVisitor<BinaryTag>() {
+                @Override
+                public void visitElement(final BinaryTag value) {
+                    elements.add(value);
+                }
+
+                @Override
+                public BinaryTag visitEnd() {
+                    return new BinaryTag.ArrayListTag(elements.toArray(new BinaryTag[0]));
+                }
+            };
+        }
+
+        @Override
+        public ValueVisitor.MapVisitor<BinaryTag> visitMap(final int size) {
+            final Map<String, BinaryTag> entries = new LinkedHashMap<>();
+            return new ValueVisitor.MapVisitor<BinaryTag>() {
+                @Override
+                public void visitEntry(final String key, final BinaryTag value) {
+                    entries.put(key, value);
+                }
+
+                @Override
+                public void visitEntry(final BinaryTag key, final BinaryTag value) {
+                    entries.put(((BinaryTag.StringTag) key).value(), value);
+                }
+
+                @Override
+                public BinaryTag visitEnd() {
+                    return BinaryTag.ArrayMapTag.copyOf(entries);
+                }
+            };
+        }
+    }
+
+    private class BinaryRecordBuilder extends RecordBuilder.AbstractStringBuilder<BinaryTag, Map<String, BinaryTag>> {
+        protected BinaryRecordBuilder() {
+            super(BinaryOps.this);
+        }
+
+        @Override
+        protected Map<String, BinaryTag> initBuilder() {
+            return new LinkedHashMap<>();
+        }
+
+        @Override
+        protected Map<String, BinaryTag> append(final String key, final BinaryTag value, final Map<String, BinaryTag> builder) {
+            builder.put(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<BinaryTag> build(final Map<String, BinaryTag> builder, final BinaryTag prefix) {
+            if (prefix == null || prefix == empty()) {
+                return DataResult.success(BinaryTag.ArrayMapTag.copyOf(builder));
+            }
+            if (prefix instanceof BinaryTag.MapTag) {
+                final Map<String, BinaryTag> result = copy(prefix);
+                result.putAll(builder);
+                return DataResult.success(BinaryTag.ArrayMapTag.copyOf(result));
+            }
+            return DataResult.error(() -> "mergeToMap called with not a map: " + prefix, prefix);
+        }
+    }
+}
@@ -0,0 +1,936 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.binary;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Immutable value of {@link BinaryOps}: typed primitives, strings, packed numeric arrays, lists and maps with string keys.
+ * Maps and lists keep their children in plain arrays instead of linked or tree maps.
+ */
+public abstract class BinaryTag {
+    public static final byte END = 0;
+    public static final byte BYTE = 1;
+    public static final byte SHORT = 2;
+    public static final byte INT = 3;
+    public static final byte LONG = 4;
+    public static final byte FLOAT = 5;
+    public static final byte DOUBLE = 6;
+    public static final byte STRING = 7;
+    public static final byte BYTE_ARRAY = 8;
+    public static final byte INT_ARRAY = 9;
+    public static final byte LONG_ARRAY = 10;
+    public static final byte LIST = 11;
+    public static final byte MAP = 12;
+
+    public static final BinaryTag EMPTY = new EndTag();
+
+    BinaryTag() {
+    }
+
+    public abstract byte type();
+
+    /**
+     * Size of the encoded payload in bytes, without the type byte.
+     */
+    public abstract int payloadSize();
+
+    public static final class EndTag extends BinaryTag {
+        private EndTag() {
+        }
+
+        @Override
+        public byte type() {
+            return END;
+        }
+
+        @Override
+        public int payloadSize() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "END";
+        }
+    }
+
+    public abstract static class NumericTag extends BinaryTag {
+        NumericTag() {
+        }
+
+        public abstract Number number();
+
+        public abstract byte byteValue();
+
+        public abstract short shortValue();
+
+        public abstract int intValue();
+
+        public abstract long longValue();
+
+        public abstract float floatValue();
+
+        public abstract double doubleValue();
+
+        @Override
+        public String toString() {
+            return number().toString();
+        }
+    }
+
+    public static final class ByteTag extends NumericTag {
+        private static final ByteTag[] CACHE = new ByteTag[256];
+
+        static {
+            for (int i = 0; i < CACHE.length; i++) {
+                CACHE[i] = new ByteTag((byte) (i + Byte.MIN_VALUE));
+            }
+        }
+
+        private final byte value;
+
+        private ByteTag(final byte value) {
+            this.value = value;
+        }
+
+        public static ByteTag of(final byte value) {
+            return CACHE[value - Byte.MIN_VALUE];
+        }
+
+        @Override
+        public byte type() {
+            return BYTE;
+        }
+
+        @Override
+        public int payloadSize() {
+            return Byte.BYTES;
+        }
+
+        @Override
+        public Number number() {
+            return value;
+        }
+
+        @Override
+        public byte byteValue() {
+            return value;
+        }
+
+        @Override
+        public short shortValue() {
+            return value;
+        }
+
+        @Override
+        public int intValue() {
+            return value;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public float floatValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof ByteTag && ((ByteTag) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+
+    public static final class ShortTag extends NumericTag {
+        private final short value;
+
+        public ShortTag(final short value) {
+            this.value = value;
+        }
+
+        @Override
+        public byte type() {
+            return SHORT;
+        }
+
+        @Override
+        public int payloadSize() {
+            return Short.BYTES;
+        }
+
+        @Override
+        public Number number() {
+            return value;
+        }
+
+        @Override
+        public byte byteValue() {
+            return (byte) value;
+        }
+
+        @Override
+        public short shortValue() {
+            return value;
+        }
+
+        @Override
+        public int intValue() {
+            return value;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public float floatValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof ShortTag && ((ShortTag) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+
+    public static final class IntTag extends NumericTag {
+        private final int value;
+
+        public IntTag(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public byte type() {
+            return INT;
+        }
+
+        @Override
+        public int payloadSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public Number number() {
+            return value;
+        }
+
+        @Override
+        public byte byteValue() {
+            return (byte) value;
+        }
+
+        @Override
+        public short shortValue() {
+            return (short) value;
+        }
+
+        @Override
+        public int intValue() {
+            return value;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public float floatValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof IntTag && ((IntTag) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+
+    public static final class LongTag extends NumericTag {
+        private final long value;
+
+        public LongTag(final long value) {
+            this.value = value;
+        }
+
+        @Override
+        public byte type() {
+            return LONG;
+        }
+
+        @Override
+        public int payloadSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public Number number() {
+            return value;
+        }
+
+        @Override
+        public byte byteValue() {
+            return (byte) value;
+        }
+
+        @Override
+        public short shortValue() {
+            return (short) value;
+        }
+
+        @Override
+        public int intValue() {
+            return (int) value;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public float floatValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof LongTag && ((LongTag) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value);
+        }
+    }
+
+    public static final class FloatTag extends NumericTag {
+        private final float value;
+
+        public FloatTag(final float value) {
+            this.value = value;
+        }
+
+        @Override
+        public byte type() {
+            return FLOAT;
+        }
+
+        @Override
+        public int payloadSize() {
+            return Float.BYTES;
+        }
+
+        @Override
+        public Number number() {
+            return value;
+        }
+
+        @Override
+        public byte byteValue() {
+            return (byte) value;
+        }
+
+        @Override
+        public short shortValue() {
+            return (short) value;
+        }
+
+        @Override
+        public int intValue() {
+            return (int) value;
+        }
+
+        @Override
+        public long longValue() {
+            return (long) value;
+        }
+
+        @Override
+        public float floatValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof FloatTag && Float.floatToIntBits(((FloatTag) o).value) == Float.floatToIntBits(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Float.hashCode(value);
+        }
+    }
+
+    public static final class DoubleTag extends NumericTag {
+        private final double value;
+
+        public DoubleTag(final double value) {
+            this.value = value;
+        }
+
+        @Override
+        public byte type() {
+            return DOUBLE;
+        }
+
+        @Override
+        public int payloadSize() {
+            return Double.BYTES;
+        }
+
+        @Override
+        public Number number() {
+            return value;
+        }
+
+        @Override
+        public byte byteValue() {
+            return (byte) value;
+        }
+
+        @Override
+        public short shortValue() {
+            return (short) value;
+        }
+
+        @Override
+        public int intValue() {
+            return (int) value;
+        }
+
+        @Override
+        public long longValue() {
+            return (long) value;
+        }
+
+        @Override
+        public float floatValue() {
+            return (float) value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof DoubleTag && Double.doubleToLongBits(((DoubleTag) o).value) == Double.doubleToLongBits(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(value);
+        }
+    }
+
+    public static final class StringTag extends BinaryTag {
+        private final String value;
+
+        public StringTag(final String value) {
+            this.value = Objects.requireNonNull(value);
+        }
+
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public byte type() {
+            return STRING;
+        }
+
+        @Override
+        public int payloadSize() {
+            return stringSize(value);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof StringTag && ((StringTag) o).value.equals(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return '"' + value + '"';
+        }
+    }
+
+    public static final class ByteArrayTag extends BinaryTag {
+        private final byte[] values;
+
+        /**
+         * Takes ownership of the array, it must not be modified afterwards.
+         */
+        public ByteArrayTag(final byte[] values) {
+            this.values = values;
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public byte get(final int index) {
+            return values[index];
+        }
+
+        public byte[] toArray() {
+            return values.clone();
+        }
+
+        @Override
+        public byte type() {
+            return BYTE_ARRAY;
+        }
+
+        @Override
+        public int payloadSize() {
+            return varIntSize(values.length) + values.length;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof ByteArrayTag && Arrays.equals(((ByteArrayTag) o).values, values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+
+        @Override
+        public String toString() {
+            return "[B;" + Arrays.toString(values) + "]";
+        }
+    }
+
+    public static final class IntArrayTag extends BinaryTag {
+        private final int[] values;
+
+        /**
+         * Takes ownership of the array, it must not be modified afterwards.
+         */
+        public IntArrayTag(final int[] values) {
+            this.values = values;
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public int get(final int index) {
+            return values[index];
+        }
+
+        public int[] toArray() {
+            return values.clone();
+        }
+
+        @Override
+        public byte type() {
+            return INT_ARRAY;
+        }
+
+        @Override
+        public int payloadSize() {
+            return varIntSize(values.length) + values.length * Integer.BYTES;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof IntArrayTag && Arrays.equals(((IntArrayTag) o).values, values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+
+        @Override
+        public String toString() {
+            return "[I;" + Arrays.toString(values) + "]";
+        }
+    }
+
+    public static final class LongArrayTag extends BinaryTag {
+        private final long[] values;
+
+        /**
+         * Takes ownership of the array, it must not be modified afterwards.
+         */
+        public LongArrayTag(final long[] values) {
+            this.values = values;
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public long get(final int index) {
+            return values[index];
+        }
+
+        public long[] toArray() {
+            return values.clone();
+        }
+
+        @Override
+        public byte type() {
+            return LONG_ARRAY;
+        }
+
+        @Override
+        public int payloadSize() {
+            return varIntSize(values.length) + values.length * Long.BYTES;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof LongArrayTag && Arrays.equals(((LongArrayTag) o).values, values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+
+        @Override
+        public String toString() {
+            return "[L;" + Arrays.toString(values) + "]";
+        }
+    }
+
+    /**
+     * List of tags. Implementations may produce their elements on demand.
+     */
+    public abstract static class ListTag extends BinaryTag {
+        ListTag() {
+        }
+
+        public abstract int size();
+
+        public abstract BinaryTag get(int index);
+
+        public void forEach(final Consumer<? super BinaryTag> consumer) {
+            for (int i = 0; i < size(); i++) {
+                consumer.accept(get(i));
+            }
+        }
+
+        @Override
+        public byte type() {
+            return LIST;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ListTag) || ((ListTag) o).size() != size()) {
+                return false;
+            }
+            final ListTag other = (ListTag) o;
+            for (int i = 0; i < size(); i++) {
+                if (!get(i).equals(other.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 1;
+            for (int i = 0; i < size(); i++) {
+                result = 31 * result + get(i).hashCode();
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(get(i));
+            }
+            return builder.append(']').toString();
+        }
+    }
+
+    public static final class ArrayListTag extends ListTag {
+        private final BinaryTag[] values;
+        private int payloadSize = -1;
+
+        /**
+         * Takes ownership of the array, it must not be modified afterwards.
+         */
+        public ArrayListTag(final BinaryTag[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public BinaryTag get(final int index) {
+            return values[index];
+        }
+
+        @Override
+        public int payloadSize() {
+            if (payloadSize < 0) {
+                int size = varIntSize(values.length);
+                for (final BinaryTag value : values) {
+                    size += 1 + value.payloadSize();
+                }
+                payloadSize = Integer.BYTES + size;
+            }
+            return payloadSize;
+        }
+    }
+
+    /**
+     * Map from string keys to tags, in insertion order. Implementations may produce their entries on demand.
+     */
+    public abstract static class MapTag extends BinaryTag {
+        MapTag() {
+        }
+
+        public abstract int size();
+
+        @Nullable
+        public abstract BinaryTag get(String key);
+
+        public abstract void forEach(BiConsumer<String, ? super BinaryTag> consumer);
+
+        @Override
+        public byte type() {
+            return MAP;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MapTag) || ((MapTag) o).size() != size()) {
+                return false;
+            }
+            final MapTag other = (MapTag) o;
+            final boolean[] equal = {true};
+            forEach((key, value) -> {
+                if (equal[0] && !value.equals(other.get(key))) {
+                    equal[0] = false;
+                }
+            });
+            return equal[0];
+        }
+
+        @Override
+        public int hashCode() {
+            final int[] result = {0};
+            forEach((key, value) -> result[0] += key.hashCode() ^ value.hashCode());
+            return result[0];
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder("{");
+            forEach((key, value) -> {
+                if (builder.length() > 1) {
+                    builder.append(',');
+                }
+                builder.append(key).append(':').append(value);
+            });
+            return builder.append('}').toString();
+        }
+    }
+
+    public static final class ArrayMapTag extends MapTag {
+        /** maps up to this size are searched linearly, larger ones get a hash index on first lookup */
+        private static final int LINEAR_LOOKUP_SIZE = 8;
+
+        private final String[] keys;
+        private final BinaryTag[] values;
+        @Nullable
+        private volatile Map<String, BinaryTag> index;
+        private int payloadSize = -1;
+
+        /**
+         * Takes ownership of the arrays, they must not be modified afterwards. Keys must be distinct.
+         */
+        public ArrayMapTag(final String[] keys, final BinaryTag[] values) {
+            if (keys.length != values.length) {
+                throw new IllegalArgumentException("Keys and values differ in length: " + keys.length + " and " + values.length);
+            }
+            this.keys = keys;
+            this.values = values;
+        }
+
+        /**
+         * Copies a map with distinct keys, in its iteration order.
+         */
+        public static ArrayMapTag copyOf(final Map<String, ? extends BinaryTag> map) {
+            final String[] keys = new String[map.size()];
+            final BinaryTag[] values = new BinaryTag[map.size()];
+            int i = 0;
+            for (final Map.Entry<String, ? extends BinaryTag> entry : map.entrySet()) {
+                keys[i] = entry.getKey();
+                values[i] = entry.getValue();
+                i++;
+            }
+            return new ArrayMapTag(keys, values);
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        public String keyAt(final int i) {
+            return keys[i];
+        }
+
+        public BinaryTag valueAt(final int i) {
+            return values[i];
+        }
+
+        @Nullable
+        @Override
+        public BinaryTag get(final String key) {
+            if (keys.length <= LINEAR_LOOKUP_SIZE) {
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i].equals(key)) {
+                        return values[i];
+                    }
+                }
+                return null;
+            }
+            Map<String, BinaryTag> index = this.index;
+            if (index == null) {
+                index = new HashMap<>(keys.length * 2);
+                for (int i = 0; i < keys.length; i++) {
+                    index.put(keys[i], values[i]);
+                }
+                this.index = index;
+            }
+            return index.get(key);
+        }
+
+        @Override
+        public void forEach(final BiConsumer<String, ? super BinaryTag> consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+
+        @Override
+        public int payloadSize() {
+            if (payloadSize < 0) {
+                int size = varIntSize(keys.length);
+                for (int i = 0; i < keys.length; i++) {
+                    size += stringSize(keys[i]) + 1 + values[i].payloadSize();
+                }
+                payloadSize = Integer.BYTES + size;
+            }
+            return payloadSize;
+        }
+    }
+
+    static int varIntSize(final int value) {
+        int size = 1;
+        int rest = value >>> 7;
+        while (rest != 0) {
+            size++;
+            rest >>>= 7;
+        }
+        return size;
+    }
+
+    static int utf8Length(final String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    length++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // four bytes for the pair
+                    length += 2;
+                    i++;
+                }
+                // unpaired surrogates are encoded as a single '?'
+            }
+        }
+        return length;
+    }
+
+    static int stringSize(final String value) {
+        final int length = utf8Length(value);
+        return varIntSize(length) + length;
+    }
+}
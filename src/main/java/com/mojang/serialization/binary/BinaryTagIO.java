@@ -0,0 +1,270 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes {@link BinaryTag}s. Every value is its type byte followed by the payload, numbers are big-endian:
+ * <ul>
+ *     <li>numbers: their fixed size bytes</li>
+ *     <li>strings: var int length, then UTF-8 bytes</li>
+ *     <li>numeric arrays: var int count, then the packed elements</li>
+ *     <li>lists: int size of the rest of the payload, var int count, then the elements</li>
+ *     <li>maps: int size of the rest of the payload, var int count, then key strings each followed by a value</li>
+ * </ul>
+ * The size of lists and maps allows readers to skip them without decoding.
+ */
+public final class BinaryTagIO {
+    private static final int MAX_DEPTH = 512;
+
+    private BinaryTagIO() {
+    }
+
+    public static void write(final BinaryTag tag, final DataOutput output) throws IOException {
+        output.writeByte(tag.type());
+        writePayload(tag, output);
+    }
+
+    public static BinaryTag read(final DataInput input) throws IOException {
+        return read(input.readByte(), input, 0);
+    }
+
+    /**
+     * Reads the tag at the position of the buffer without decoding it. Lists and maps are only scanned when accessed,
+     * children are decoded when reached and unchanged subtrees are copied as raw bytes when written.
+     * The buffer must not change while the tag is in use.
+     */
+    public static BinaryTag readLazy(final ByteBuffer buffer) {
+        return LazyBinaryTags.read(buffer);
+    }
+
+    /**
+     * Maps the file into memory and reads its tag lazily, see {@link #readLazy(ByteBuffer)}.
+     * A single mapping and the offsets into it are limited to {@link Integer#MAX_VALUE} bytes, larger files are rejected.
+     *
+     * @throws IOException if the file cannot be read or is 2GB or larger
+     */
+    public static BinaryTag map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Cannot map " + path + ": " + size + " bytes is over the limit of " + Integer.MAX_VALUE + " bytes, use read instead");
+            }
+            return readLazy(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static byte[] toBytes(final BinaryTag tag) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 + tag.payloadSize());
+        try (final DataOutputStream output = new DataOutputStream(bytes)) {
+            write(tag, output);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static BinaryTag fromBytes(final byte[] bytes) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    static void writePayload(final BinaryTag tag, final DataOutput output) throws IOException {
+        if (tag instanceof LazyBinaryTags.Raw) {
+            ((LazyBinaryTags.Raw) tag).writeRawPayload(output);
+            return;
+        }
+        switch (tag.type()) {
+            case BinaryTag.END:
+                return;
+            case BinaryTag.BYTE:
+                output.writeByte(((BinaryTag.NumericTag) tag).byteValue());
+                return;
+            case BinaryTag.SHORT:
+                output.writeShort(((BinaryTag.NumericTag) tag).shortValue());
+                return;
+            case BinaryTag.INT:
+                output.writeInt(((BinaryTag.NumericTag) tag).intValue());
+                return;
+            case BinaryTag.LONG:
+                output.writeLong(((BinaryTag.NumericTag) tag).longValue());
+                return;
+            case BinaryTag.FLOAT:
+                output.writeFloat(((BinaryTag.NumericTag) tag).floatValue());
+                return;
+            case BinaryTag.DOUBLE:
+                output.writeDouble(((BinaryTag.NumericTag) tag).doubleValue());
+                return;
+            case BinaryTag.STRING:
+                writeString(((BinaryTag.StringTag) tag).value(), output);
+                return;
+            case BinaryTag.BYTE_ARRAY: {
+                final BinaryTag.ByteArrayTag array = (BinaryTag.ByteArrayTag) tag;
+                writeVarInt(array.size(), output);
+                for (int i = 0; i < array.size(); i++) {
+                    output.writeByte(array.get(i));
+                }
+                return;
+            }
+            case BinaryTag.INT_ARRAY: {
+                final BinaryTag.IntArrayTag array = (BinaryTag.IntArrayTag) tag;
+                writeVarInt(array.size(), output);
+                for (int i = 0; i < array.size(); i++) {
+                    output.writeInt(array.get(i));
+                }
+                return;
+            }
+            case BinaryTag.LONG_ARRAY: {
+                final BinaryTag.LongArrayTag array = (BinaryTag.LongArrayTag) tag;
+                writeVarInt(array.size(), output);
+                for (int i = 0; i < array.size(); i++) {
+                    output.writeLong(array.get(i));
+                }
+                return;
+            }
+            case BinaryTag.LIST: {
+                final BinaryTag.ListTag list = (BinaryTag.ListTag) tag;
+                output.writeInt(list.payloadSize() - Integer.BYTES);
+                writeVarInt(list.size(), output);
+                for (int i = 0; i < list.size(); i++) {
+                    write(list.get(i), output);
+                }
+                return;
+            }
+            case BinaryTag.MAP: {
+                final BinaryTag.MapTag map = (BinaryTag.MapTag) tag;
+                output.writeInt(map.payloadSize() - Integer.BYTES);
+                writeVarInt(map.size(), output);
+                final IOException[] error = {null};
+                map.forEach((key, value) -> {
+                    if (error[0] == null) {
+                        try {
+                            writeString(key, output);
+                            write(value, output);
+                        } catch (final IOException e) {
+                            error[0] = e;
+                        }
+                    }
+                });
+                if (error[0] != null) {
+                    throw error[0];
+                }
+                return;
+            }
+            default:
+                throw new IOException("Unknown tag type: " + tag.type());
+        }
+    }
+
+    private static BinaryTag read(final byte type, final DataInput input, final int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Tag is nested deeper than " + MAX_DEPTH);
+        }
+        switch (type) {
+            case BinaryTag.END:
+                return BinaryTag.EMPTY;
+            case BinaryTag.BYTE:
+                return BinaryTag.ByteTag.of(input.readByte());
+            case BinaryTag.SHORT:
+                return new BinaryTag.ShortTag(input.readShort());
+            case BinaryTag.INT:
+                return new BinaryTag.IntTag(input.readInt());
+            case BinaryTag.LONG:
+                return new BinaryTag.LongTag(input.readLong());
+            case BinaryTag.FLOAT:
+                return new BinaryTag.FloatTag(input.readFloat());
+            case BinaryTag.DOUBLE:
+                return new BinaryTag.DoubleTag(input.readDouble());
+            case BinaryTag.STRING:
+                return new BinaryTag.StringTag(readString(input));
+            case BinaryTag.BYTE_ARRAY: {
+                final byte[] values = new byte[readVarInt(input)];
+                input.readFully(values);
+                return new BinaryTag.ByteArrayTag(values);
+            }
+            case BinaryTag.INT_ARRAY: {
+                final int[] values = new int[readVarInt(input)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = input.readInt();
+                }
+                return new BinaryTag.IntArrayTag(values);
+            }
+            case BinaryTag.LONG_ARRAY: {
+                final long[] values = new long[readVarInt(input)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = input.readLong();
+                }
+                return new BinaryTag.LongArrayTag(values);
+            }
+            case BinaryTag.LIST: {
+                input.readInt();
+                final BinaryTag[] values = new BinaryTag[readVarInt(input)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = read(input.readByte(), input, depth + 1);
+                }
+                return new BinaryTag.ArrayListTag(values);
+            }
+            case BinaryTag.MAP: {
+                input.readInt();
+                final int size = readVarInt(input);
+                final String[] keys = new String[size];
+                final BinaryTag[] values = new BinaryTag[size];
+                for (int i = 0; i < size; i++) {
+                    keys[i] = readString(input);
+                    values[i] = read(input.readByte(), input, depth + 1);
+                }
+                return new BinaryTag.ArrayMapTag(keys, values);
+            }
+            default:
+                throw new IOException("Unknown tag type: " + type);
+        }
+    }
+
+    static void writeString(final String value, final DataOutput output) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length, output);
+        output.write(bytes);
+    }
+
+    static String readString(final DataInput input) throws IOException {
+        final byte[] bytes = new byte[readVarInt(input)];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarInt(final int value, final DataOutput output) throws IOException {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            output.writeByte(rest & 0x7F | 0x80);
+            rest >>>= 7;
+        }
+        output.writeByte(rest);
+    }
+
+    static int readVarInt(final DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = input.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Negative length: " + value);
+                }
+                return value;
+            }
+        }
+        throw new IOException("Var int is too long");
+    }
+}
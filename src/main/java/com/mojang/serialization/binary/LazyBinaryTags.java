@@ -0,0 +1,321 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.binary;
+
+import javax.annotation.Nullable;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only tags over the encoded form of {@link BinaryTagIO} in a buffer, usually a memory-mapped file.
+ * Lists and maps only record their offset; their entries are scanned when first accessed and children are decoded
+ * when they are reached. Subtrees that are written again without being changed are copied as raw bytes.
+ */
+final class LazyBinaryTags {
+    private static final int COPY_CHUNK = 8192;
+
+    private LazyBinaryTags() {
+    }
+
+    /**
+     * Lazy tags keep the byte range they were read from.
+     */
+    interface Raw {
+        void writeRawPayload(DataOutput output) throws IOException;
+    }
+
+    static BinaryTag read(final ByteBuffer buffer) {
+        final ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        return tagAt(data, data.position());
+    }
+
+    /**
+     * Decodes the tag whose type byte is at the offset; lists and maps are returned unopened.
+     */
+    private static BinaryTag tagAt(final ByteBuffer buffer, final int offset) {
+        final byte type = buffer.get(offset);
+        final int payload = offset + 1;
+        switch (type) {
+            case BinaryTag.END:
+                return BinaryTag.EMPTY;
+            case BinaryTag.BYTE:
+                return BinaryTag.ByteTag.of(buffer.get(payload));
+            case BinaryTag.SHORT:
+                return new BinaryTag.ShortTag(buffer.getShort(payload));
+            case BinaryTag.INT:
+                return new BinaryTag.IntTag(buffer.getInt(payload));
+            case BinaryTag.LONG:
+                return new BinaryTag.LongTag(buffer.getLong(payload));
+            case BinaryTag.FLOAT:
+                return new BinaryTag.FloatTag(buffer.getFloat(payload));
+            case BinaryTag.DOUBLE:
+                return new BinaryTag.DoubleTag(buffer.getDouble(payload));
+            case BinaryTag.STRING:
+                return new BinaryTag.StringTag(stringAt(buffer, new int[] {payload}));
+            case BinaryTag.BYTE_ARRAY: {
+                final int[] cursor = {payload};
+                final byte[] values = new byte[varIntAt(buffer, cursor)];
+                final ByteBuffer slice = buffer.duplicate();
+                slice.position(cursor[0]);
+                slice.get(values);
+                return new BinaryTag.ByteArrayTag(values);
+            }
+            case BinaryTag.INT_ARRAY: {
+                final int[] cursor = {payload};
+                final int[] values = new int[varIntAt(buffer, cursor)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = buffer.getInt(cursor[0] + i * Integer.BYTES);
+                }
+                return new BinaryTag.IntArrayTag(values);
+            }
+            case BinaryTag.LONG_ARRAY: {
+                final int[] cursor = {payload};
+                final long[] values = new long[varIntAt(buffer, cursor)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = buffer.getLong(cursor[0] + i * Long.BYTES);
+                }
+                return new BinaryTag.LongArrayTag(values);
+            }
+            case BinaryTag.LIST:
+                return new LazyListTag(buffer, payload);
+            case BinaryTag.MAP:
+                return new LazyMapTag(buffer, payload);
+            default:
+                throw new IllegalStateException("Unknown tag type " + type + " at " + offset);
+        }
+    }
+
+    /**
+     * Returns the offset right after the tag whose type byte is at the offset.
+     */
+    private static int skip(final ByteBuffer buffer, final int offset) {
+        final byte type = buffer.get(offset);
+        final int payload = offset + 1;
+        switch (type) {
+            case BinaryTag.END:
+                return payload;
+            case BinaryTag.BYTE:
+                return payload + Byte.BYTES;
+            case BinaryTag.SHORT:
+                return payload + Short.BYTES;
+            case BinaryTag.INT:
+            case BinaryTag.FLOAT:
+                return payload + Integer.BYTES;
+            case BinaryTag.LONG:
+            case BinaryTag.DOUBLE:
+                return payload + Long.BYTES;
+            case BinaryTag.STRING:
+            case BinaryTag.BYTE_ARRAY: {
+                final int[] cursor = {payload};
+                final int length = varIntAt(buffer, cursor);
+                return cursor[0] + length;
+            }
+            case BinaryTag.INT_ARRAY: {
+                final int[] cursor = {payload};
+                final int length = varIntAt(buffer, cursor);
+                return cursor[0] + length * Integer.BYTES;
+            }
+            case BinaryTag.LONG_ARRAY: {
+                final int[] cursor = {payload};
+                final int length = varIntAt(buffer, cursor);
+                return cursor[0] + length * Long.BYTES;
+            }
+            case BinaryTag.LIST:
+            case BinaryTag.MAP:
+                return payload + Integer.BYTES + buffer.getInt(payload);
+            default:
+                throw new IllegalStateException("Unknown tag type " + type + " at " + offset);
+        }
+    }
+
+    private static int varIntAt(final ByteBuffer buffer, final int[] cursor) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = buffer.get(cursor[0]++);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalStateException("Negative length at " + (cursor[0] - 1));
+                }
+                return value;
+            }
+        }
+        throw new IllegalStateException("Var int is too long at " + cursor[0]);
+    }
+
+    private static String stringAt(final ByteBuffer buffer, final int[] cursor) {
+        final byte[] bytes = new byte[varIntAt(buffer, cursor)];
+        final ByteBuffer slice = buffer.duplicate();
+        slice.position(cursor[0]);
+        slice.get(bytes);
+        cursor[0] += bytes.length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void copy(final ByteBuffer buffer, final int offset, final int length, final DataOutput output) throws IOException {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        final byte[] chunk = new byte[Math.min(length, COPY_CHUNK)];
+        int remaining = length;
+        while (remaining > 0) {
+            final int size = Math.min(remaining, chunk.length);
+            slice.get(chunk, 0, size);
+            output.write(chunk, 0, size);
+            remaining -= size;
+        }
+    }
+
+    private static final class LazyListTag extends BinaryTag.ListTag implements Raw {
+        private final ByteBuffer buffer;
+        private final int payload;
+        /** offsets of the elements, scanned on first access */
+        @Nullable
+        private volatile int[] offsets;
+        @Nullable
+        private volatile BinaryTag[] elements;
+
+        private LazyListTag(final ByteBuffer buffer, final int payload) {
+            this.buffer = buffer;
+            this.payload = payload;
+        }
+
+        private int[] offsets() {
+            int[] offsets = this.offsets;
+            if (offsets == null) {
+                final int[] cursor = {payload + Integer.BYTES};
+                offsets = new int[varIntAt(buffer, cursor)];
+                int offset = cursor[0];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = offset;
+                    offset = skip(buffer, offset);
+                }
+                this.offsets = offsets;
+            }
+            return offsets;
+        }
+
+        @Override
+        public int size() {
+            return offsets().length;
+        }
+
+        @Override
+        public BinaryTag get(final int index) {
+            final int[] offsets = offsets();
+            BinaryTag[] elements = this.elements;
+            if (elements == null) {
+                elements = new BinaryTag[offsets.length];
+                this.elements = elements;
+            }
+            BinaryTag element = elements[index];
+            if (element == null) {
+                element = tagAt(buffer, offsets[index]);
+                elements[index] = element;
+            }
+            return element;
+        }
+
+        @Override
+        public int payloadSize() {
+            return Integer.BYTES + buffer.getInt(payload);
+        }
+
+        @Override
+        public void writeRawPayload(final DataOutput output) throws IOException {
+            copy(buffer, payload, payloadSize(), output);
+        }
+    }
+
+    private static final class LazyMapTag extends BinaryTag.MapTag implements Raw {
+        private final ByteBuffer buffer;
+        private final int payload;
+        @Nullable
+        private volatile Entries entries;
+
+        private LazyMapTag(final ByteBuffer buffer, final int payload) {
+            this.buffer = buffer;
+            this.payload = payload;
+        }
+
+        private Entries entries() {
+            Entries entries = this.entries;
+            if (entries == null) {
+                entries = new Entries(buffer, payload);
+                this.entries = entries;
+            }
+            return entries;
+        }
+
+        @Override
+        public int size() {
+            return entries().keys.length;
+        }
+
+        @Nullable
+        @Override
+        public BinaryTag get(final String key) {
+            final Entries entries = entries();
+            final Integer index = entries.index.get(key);
+            return index == null ? null : entries.value(buffer, index);
+        }
+
+        @Override
+        public void forEach(final BiConsumer<String, ? super BinaryTag> consumer) {
+            final Entries entries = entries();
+            for (int i = 0; i < entries.keys.length; i++) {
+                consumer.accept(entries.keys[i], entries.value(buffer, i));
+            }
+        }
+
+        @Override
+        public int payloadSize() {
+            return Integer.BYTES + buffer.getInt(payload);
+        }
+
+        @Override
+        public void writeRawPayload(final DataOutput output) throws IOException {
+            copy(buffer, payload, payloadSize(), output);
+        }
+    }
+
+    /**
+     * Keys and value offsets of a map, values are decoded on first access.
+     */
+    private static final class Entries {
+        private final String[] keys;
+        private final int[] offsets;
+        private final BinaryTag[] values;
+        private final Map<String, Integer> index;
+
+        private Entries(final ByteBuffer buffer, final int payload) {
+            final int[] cursor = {payload + Integer.BYTES};
+            final int size = varIntAt(buffer, cursor);
+            keys = new String[size];
+            offsets = new int[size];
+            values = new BinaryTag[size];
+            index = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                keys[i] = stringAt(buffer, cursor);
+                offsets[i] = cursor[0];
+                index.put(keys[i], i);
+                cursor[0] = skip(buffer, cursor[0]);
+            }
+        }
+
+        private BinaryTag value(final ByteBuffer buffer, final int i) {
+            BinaryTag value = values[i];
+            if (value == null) {
+                // decoding the same bytes again on a race is harmless
+                value = tagAt(buffer, offsets[i]);
+                values[i] = value;
+            }
+            return value;
+        }
+    }
+}
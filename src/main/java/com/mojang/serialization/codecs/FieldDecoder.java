@@ -13,25 +13,27 @@ import java.util.stream.Stream;
 
 public final class FieldDecoder<A> extends MapDecoder.Implementation<A> {
     protected final String name;
+    private final FieldKey key;
     private final Decoder<A> elementCodec;
 
     public FieldDecoder(final String name, final Decoder<A> elementCodec) {
         this.name = name;
+        key = new FieldKey(name);
         this.elementCodec = elementCodec;
     }
 
     @Override
     public <T> DataResult<A> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-        final T value = input.get(name);
+        final T value = input.get(name, key.get(ops));
         if (value == null) {
-            return DataResult.error("No key " + name + " in " + input);
+            return DataResult.error(() -> "No key " + name + " in " + input);
         }
         return elementCodec.parse(ops, value);
     }
 
     @Override
     public <T> Stream<T> keys(final DynamicOps<T> ops) {
-        return Stream.of(ops.createString(name));
+        return Stream.of(key.get(ops));
     }
 
     @Override
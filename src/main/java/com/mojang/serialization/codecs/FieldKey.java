@@ -0,0 +1,60 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.codecs;
+
+import com.mojang.serialization.DynamicOps;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * The key of a named field, built once per ops, so that field access does not create a key each time.
+ * Keys are cached for a handful of ops, which are only weakly referenced, so codecs held in static fields do not keep
+ * them alive. Any further ops create the key on every call.
+ */
+final class FieldKey {
+    private static final int MAX_OPS = 4;
+    private static final Object[] NO_KEYS = new Object[0];
+
+    private final String name;
+    // alternating weak references to ops and their keys, replaced as a whole on every insertion
+    private volatile Object[] keys = NO_KEYS;
+
+    FieldKey(final String name) {
+        this.name = name;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(final DynamicOps<T> ops) {
+        final Object[] entries = keys;
+        for (int i = 0; i < entries.length; i += 2) {
+            final Object cached = ((WeakReference<?>) entries[i]).get();
+            if (cached == ops || ops.equals(cached)) {
+                return (T) entries[i + 1];
+            }
+        }
+        final T key = ops.createString(name);
+        synchronized (this) {
+            // drop the ops that were collected, then add this one if there is room left
+            final Object[] current = keys;
+            final Object[] live = new Object[current.length + 2];
+            int size = 0;
+            for (int i = 0; i < current.length; i += 2) {
+                final Object cached = ((WeakReference<?>) current[i]).get();
+                if (cached == ops || ops.equals(cached)) {
+                    return (T) current[i + 1];
+                }
+                if (cached != null) {
+                    live[size++] = current[i];
+                    live[size++] = current[i + 1];
+                }
+            }
+            if (size < MAX_OPS * 2) {
+                live[size++] = new WeakReference<>(ops);
+                live[size++] = key;
+                keys = Arrays.copyOf(live, size);
+            }
+        }
+        return key;
+    }
+}
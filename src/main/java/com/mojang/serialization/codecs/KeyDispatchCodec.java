@@ -6,11 +6,14 @@ import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Decoder;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.Encoder;
+import com.mojang.serialization.Lifecycle;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.MapLike;
 import com.mojang.serialization.RecordBuilder;
 
+import javax.annotation.Nullable;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 public class KeyDispatchCodec<K, V> extends MapCodec<V> {
@@ -22,6 +25,7 @@ public class KeyDispatchCodec<K, V> extends MapCodec<V> {
     private final Function<? super V, ? extends DataResult<? extends Encoder<V>>> encoder;
 
     private final boolean assumeMap;
+    private final boolean stringKeys;
 
     /**
      * Will assume that the result of all elements is a map
@@ -37,6 +41,7 @@ public class KeyDispatchCodec<K, V> extends MapCodec<V> {
         this.decoder = decoder;
         this.encoder = encoder;
         this.assumeMap = assumeMap;
+        stringKeys = keyCodec == Codec.STRING;
     }
 
     /**
@@ -48,26 +53,34 @@ public class KeyDispatchCodec<K, V> extends MapCodec<V> {
 
     @Override
     public <T> DataResult<V> decode(final DynamicOps<T> ops, final MapLike<T> input) {
+        return decode(ops, input, null);
+    }
+
+    /**
+     * With the source the map was read from, map elements are decoded straight from it instead of a rebuilt copy.
+     */
+    @Override
+    public <T> DataResult<V> decode(final DynamicOps<T> ops, final MapLike<T> input, @Nullable final T source) {
         final T elementName = input.get(typeKey);
         if (elementName == null) {
-            return DataResult.error("Input does not contain a key [" + typeKey + "]: " + input);
+            return DataResult.error(() -> "Input does not contain a key [" + typeKey + "]: " + input);
         }
 
-        return keyCodec.decode(ops, elementName).flatMap(type -> {
-            final DataResult<? extends Decoder<? extends V>> elementDecoder = decoder.apply(type.getFirst());
+        return decodeKey(ops, elementName).flatMap(type -> {
+            final DataResult<? extends Decoder<? extends V>> elementDecoder = decoder.apply(type);
             return elementDecoder.flatMap(c -> {
                 if (ops.compressMaps()) {
                     final T value = input.get(ops.createString(valueKey));
                     if (value == null) {
-                        return DataResult.error("Input does not have a \"value\" entry: " + input);
+                        return DataResult.error(() -> "Input does not have a \"value\" entry: " + input);
                     }
                     return c.parse(ops, value).map(Function.identity());
                 }
                 if (c instanceof MapCodecCodec<?>) {
-                    return ((MapCodecCodec<? extends V>) c).codec().decode(ops, input).map(Function.identity());
+                    return ((MapCodecCodec<? extends V>) c).codec().decode(ops, input, source).map(Function.identity());
                 }
                 if (assumeMap) {
-                    return c.decode(ops, ops.createMap(input.entries())).map(Pair::getFirst);
+                    return c.decode(ops, source != null ? source : ops.createMap(input.entries())).map(Pair::getFirst);
                 }
                 return c.decode(ops, input.get(valueKey)).map(Pair::getFirst);
             });
@@ -85,34 +98,43 @@ public class KeyDispatchCodec<K, V> extends MapCodec<V> {
         final Encoder<V> c = elementEncoder.result().get();
         if (ops.compressMaps()) {
             return prefix
-                .add(typeKey, type.apply(input).flatMap(t -> keyCodec.encodeStart(ops, t)))
+                .add(typeKey, type.apply(input).flatMap(t -> encodeKey(ops, t)))
                 .add(valueKey, c.encodeStart(ops, input));
         }
         if (c instanceof MapCodecCodec<?>) {
-            return ((MapCodecCodec<V>) c).codec().encode(input, ops, prefix)
-                .add(typeKey, type.apply(input).flatMap(t -> keyCodec.encodeStart(ops, t)));
+            return c.encodeFields(input, ops, prefix)
+                .add(typeKey, type.apply(input).flatMap(t -> encodeKey(ops, t)));
         }
-
-        final T typeString = ops.createString(typeKey);
-
-        final DataResult<T> result = c.encodeStart(ops, input);
         if (assumeMap) {
-            final DataResult<MapLike<T>> element = result.flatMap(ops::getMap);
-            return element.map(map -> {
-                prefix.add(typeString, type.apply(input).flatMap(t -> keyCodec.encodeStart(ops, t)));
-                map.entries().forEach(pair -> {
-                    if (!pair.getFirst().equals(typeString)) {
-                        prefix.add(pair.getFirst(), pair.getSecond());
-                    }
-                });
-                return prefix;
-            }).result().orElseGet(() -> prefix.withErrorsFrom(element));
+            // the element writes its fields into our builder, after the type key and without its own copy of it
+            prefix.add(typeKey, type.apply(input).flatMap(t -> encodeKey(ops, t)));
+            c.encodeFields(input, ops, new SkipKeyBuilder<>(prefix, typeKey));
+            return prefix;
         }
-        prefix.add(typeString, type.apply(input).flatMap(t -> keyCodec.encodeStart(ops, t)));
-        prefix.add(valueKey, result);
+
+        prefix.add(typeKey, type.apply(input).flatMap(t -> encodeKey(ops, t)));
+        prefix.add(valueKey, c.encodeStart(ops, input));
         return prefix;
     }
 
+    /**
+     * String keys are read and written directly by the ops, without going through the key codec.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> DataResult<K> decodeKey(final DynamicOps<T> ops, final T input) {
+        if (stringKeys) {
+            return (DataResult<K>) ops.getStringValue(input);
+        }
+        return keyCodec.parse(ops, input);
+    }
+
+    private <T> DataResult<T> encodeKey(final DynamicOps<T> ops, final K key) {
+        if (stringKeys) {
+            return DataResult.success(ops.createString((String) key));
+        }
+        return keyCodec.encodeStart(ops, key);
+    }
+
     @Override
     public <T> Stream<T> keys(final DynamicOps<T> ops) {
         return Stream.of(typeKey, valueKey).map(ops::createString);
@@ -123,6 +145,97 @@ public class KeyDispatchCodec<K, V> extends MapCodec<V> {
         return type.apply(input).<Encoder<? extends V>>flatMap(k -> encoder.apply(k).map(Function.identity())).map(c -> ((Encoder<V>) c));
     }
 
+    /**
+     * Passes fields on to the wrapped builder, except for the one with the given name.
+     */
+    private static final class SkipKeyBuilder<T> implements RecordBuilder<T> {
+        private final RecordBuilder<T> builder;
+        private final String name;
+        private final T key;
+
+        private SkipKeyBuilder(final RecordBuilder<T> builder, final String name) {
+            this.builder = builder;
+            this.name = name;
+            key = builder.ops().createString(name);
+        }
+
+        @Override
+        public DynamicOps<T> ops() {
+            return builder.ops();
+        }
+
+        @Override
+        public RecordBuilder<T> add(final T key, final T value) {
+            if (!this.key.equals(key)) {
+                builder.add(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> add(final T key, final DataResult<T> value) {
+            if (!this.key.equals(key)) {
+                builder.add(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> add(final DataResult<T> key, final DataResult<T> value) {
+            if (!key.result().filter(this.key::equals).isPresent()) {
+                builder.add(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> add(final String key, final T value) {
+            if (!name.equals(key)) {
+                builder.add(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> add(final String key, final DataResult<T> value) {
+            if (!name.equals(key)) {
+                builder.add(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> add(final String name, final T key, final DataResult<T> value) {
+            if (!this.name.equals(name)) {
+                builder.add(name, key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> withErrorsFrom(final DataResult<?> result) {
+            builder.withErrorsFrom(result);
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> setLifecycle(final Lifecycle lifecycle) {
+            builder.setLifecycle(lifecycle);
+            return this;
+        }
+
+        @Override
+        public RecordBuilder<T> mapError(final UnaryOperator<String> onError) {
+            builder.mapError(onError);
+            return this;
+        }
+
+        @Override
+        public DataResult<T> build(final T prefix) {
+            return builder.build(prefix);
+        }
+    }
+
     @Override
     public String toString() {
         return "KeyDispatchCodec[" + keyCodec.toString() + " " + type + " " + decoder + "]";
@@ -16,16 +16,18 @@ import java.util.stream.Stream;
 /** Optimization of `Codec.either(someCodec.field(name), Codec.EMPTY)` */
 public class OptionalFieldCodec<A> extends MapCodec<Optional<A>> {
     private final String name;
+    private final FieldKey key;
     private final Codec<A> elementCodec;
 
     public OptionalFieldCodec(final String name, final Codec<A> elementCodec) {
         this.name = name;
+        key = new FieldKey(name);
         this.elementCodec = elementCodec;
     }
 
     @Override
     public <T> DataResult<Optional<A>> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-        final T value = input.get(name);
+        final T value = input.get(name, key.get(ops));
         if (value == null) {
             return DataResult.success(Optional.empty());
         }
@@ -39,14 +41,14 @@ public class OptionalFieldCodec<A> extends MapCodec<Optional<A>> {
     @Override
     public <T> RecordBuilder<T> encode(final Optional<A> input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
         if (input.isPresent()) {
-            return prefix.add(name, elementCodec.encodeStart(ops, input.get()));
+            return prefix.add(name, key.get(ops), elementCodec.encodeStart(ops, input.get()));
         }
         return prefix;
     }
 
     @Override
     public <T> Stream<T> keys(final DynamicOps<T> ops) {
-        return Stream.of(ops.createString(name));
+        return Stream.of(key.get(ops));
     }
 
     @Override
@@ -17,6 +17,17 @@ public interface PrimitiveCodec<A> extends Codec<A> {
         return read(ops, input).map(r -> Pair.of(r, ops.empty()));
     }
 
+    /** Skips the pair that {@link #decode} has to build, fields of records decode through this. */
+    @Override
+    default <T> DataResult<A> parse(final DynamicOps<T> ops, final T input) {
+        return read(ops, input);
+    }
+
+    @Override
+    default <T> DataResult<T> encodeStart(final DynamicOps<T> ops, final A input) {
+        return DataResult.success(write(ops, input));
+    }
+
     @Override
     default <T> DataResult<T> encode(final A input, final DynamicOps<T> ops, final T prefix) {
         return ops.mergeToPrimitive(prefix, write(ops, input));
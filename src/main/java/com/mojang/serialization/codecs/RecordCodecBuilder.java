@@ -5,8 +5,20 @@ package com.mojang.serialization.codecs;
 import com.mojang.datafixers.kinds.App;
 import com.mojang.datafixers.kinds.Applicative;
 import com.mojang.datafixers.kinds.K1;
+import com.mojang.datafixers.util.Function10;
+import com.mojang.datafixers.util.Function11;
+import com.mojang.datafixers.util.Function12;
+import com.mojang.datafixers.util.Function13;
+import com.mojang.datafixers.util.Function14;
+import com.mojang.datafixers.util.Function15;
+import com.mojang.datafixers.util.Function16;
 import com.mojang.datafixers.util.Function3;
 import com.mojang.datafixers.util.Function4;
+import com.mojang.datafixers.util.Function5;
+import com.mojang.datafixers.util.Function6;
+import com.mojang.datafixers.util.Function7;
+import com.mojang.datafixers.util.Function8;
+import com.mojang.datafixers.util.Function9;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Decoder;
@@ -19,8 +31,10 @@ import com.mojang.serialization.MapEncoder;
 import com.mojang.serialization.MapLike;
 import com.mojang.serialization.RecordBuilder;
 
+import java.util.Arrays;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu<O>, F> {
@@ -124,6 +138,92 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
         };
     }
 
+    /**
+     * Builds a record from a function and its fields as one flat codec: fields are decoded in one loop into an array
+     * that is handed to the function, and encoded in one loop into the same record builder.
+     */
+    @SafeVarargs
+    private static <O, F, R> RecordCodecBuilder<O, R> flat(final RecordCodecBuilder<O, F> function, final BiFunction<F, Object[], R> applier, final Function<R, F> constant, final RecordCodecBuilder<O, ?>... fields) {
+        return new RecordCodecBuilder<>(
+            o -> {
+                final Object[] values = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    values[i] = fields[i].getter.apply(o);
+                }
+                return applier.apply(function.getter.apply(o), values);
+            },
+            o -> {
+                final MapEncoder<F> fEncoder = function.encoder.apply(o);
+
+                return new MapEncoder.Implementation<R>() {
+                    @Override
+                    public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
+                        for (final RecordCodecBuilder<O, ?> field : fields) {
+                            encodeField(field, o, ops, prefix);
+                        }
+                        fEncoder.encode(constant.apply(input), ops, prefix);
+                        return prefix;
+                    }
+
+                    @Override
+                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
+                        return Stream.concat(fEncoder.keys(ops), Arrays.stream(fields).flatMap(field -> field.encoder.apply(o).keys(ops)));
+                    }
+
+                    @Override
+                    public String toString() {
+                        return fEncoder + " * " + Arrays.stream(fields).map(field -> field.encoder.apply(o).toString()).collect(Collectors.joining(" * "));
+                    }
+                };
+            },
+            new MapDecoder.Implementation<R>() {
+                @Override
+                public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
+                    final DataResult<F> functionResult = function.decoder.decode(ops, input);
+                    final DataResult<?>[] results = new DataResult<?>[fields.length];
+                    boolean success = !functionResult.error().isPresent();
+                    for (int i = 0; i < fields.length; i++) {
+                        results[i] = fields[i].decoder.decode(ops, input);
+                        success &= !results[i].error().isPresent();
+                    }
+                    if (success) {
+                        final Object[] values = new Object[fields.length];
+                        Lifecycle lifecycle = functionResult.lifecycle();
+                        for (int i = 0; i < fields.length; i++) {
+                            values[i] = results[i].result().get();
+                            lifecycle = lifecycle.add(results[i].lifecycle());
+                        }
+                        return DataResult.success(applier.apply(functionResult.result().get(), values), lifecycle);
+                    }
+                    // accumulate errors and partial results the same way the applicative would: fields from last to first, then the function
+                    DataResult<Object[]> values = DataResult.success(new Object[fields.length], Lifecycle.stable());
+                    for (int i = fields.length - 1; i >= 0; i--) {
+                        final int index = i;
+                        values = values.ap(results[i].map(value -> array -> {
+                            array[index] = value;
+                            return array;
+                        }));
+                    }
+                    return values.ap(functionResult.map(f -> array -> applier.apply(f, array)));
+                }
+
+                @Override
+                public <T> Stream<T> keys(final DynamicOps<T> ops) {
+                    return Stream.concat(function.decoder.keys(ops), Arrays.stream(fields).flatMap(field -> field.decoder.keys(ops)));
+                }
+
+                @Override
+                public String toString() {
+                    return function.decoder + " * " + Arrays.stream(fields).map(field -> field.decoder.toString()).collect(Collectors.joining(" * "));
+                }
+            }
+        );
+    }
+
+    private static <O, A, T> void encodeField(final RecordCodecBuilder<O, A> field, final O object, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
+        field.encoder.apply(object).encode(field.getter.apply(object), ops, prefix);
+    }
+
     public static final class Instance<O> implements Applicative<Mu<O>, Instance.Mu<O>> {
         private static final class Mu<O> implements Applicative.Mu {}
 
@@ -201,231 +301,168 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
             };
         }
 
+        @SuppressWarnings("unchecked")
         @Override
-        public <A, B, R> App<RecordCodecBuilder.Mu<O>, R> ap2(final App<RecordCodecBuilder.Mu<O>, BiFunction<A, B, R>> func, final App<RecordCodecBuilder.Mu<O>, A> a, final App<RecordCodecBuilder.Mu<O>, B> b) {
-            final RecordCodecBuilder<O, BiFunction<A, B, R>> function = unbox(func);
-            final RecordCodecBuilder<O, A> fa = unbox(a);
-            final RecordCodecBuilder<O, B> fb = unbox(b);
-
-            return new RecordCodecBuilder<>(
-                o -> function.getter.apply(o).apply(fa.getter.apply(o), fb.getter.apply(o)),
-                o -> {
-                    final MapEncoder<BiFunction<A, B, R>> fEncoder = function.encoder.apply(o);
-                    final MapEncoder<A> aEncoder = fa.encoder.apply(o);
-                    final A aFromO = fa.getter.apply(o);
-                    final MapEncoder<B> bEncoder = fb.encoder.apply(o);
-                    final B bFromO = fb.getter.apply(o);
-
-                    return new MapEncoder.Implementation<R>() {
-                        @Override
-                        public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                            aEncoder.encode(aFromO, ops, prefix);
-                            bEncoder.encode(bFromO, ops, prefix);
-                            fEncoder.encode((a1, b1) -> input, ops, prefix);
-                            return prefix;
-                        }
-
-                        @Override
-                        public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                            return Stream.of(
-                                fEncoder.keys(ops),
-                                aEncoder.keys(ops),
-                                bEncoder.keys(ops)
-                            ).flatMap(Function.identity());
-                        }
-
-                        @Override
-                        public String toString() {
-                            return fEncoder + " * " + aEncoder + " * " + bEncoder;
-                        }
-                    };
-                },
-                new MapDecoder.Implementation<R>() {
-                    @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap2(
-                            function.decoder.decode(ops, input),
-                            fa.decoder.decode(ops, input),
-                            fb.decoder.decode(ops, input)
-                        ));
-                    }
+        public <T1, T2, R> App<RecordCodecBuilder.Mu<O>, R> ap2(final App<RecordCodecBuilder.Mu<O>, BiFunction<T1, T2, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1]),
+                r -> (a1, a2) -> r,
+                unbox(t1), unbox(t2)
+            );
+        }
 
-                    @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            fa.decoder.keys(ops),
-                            fb.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, R> App<RecordCodecBuilder.Mu<O>, R> ap3(final App<RecordCodecBuilder.Mu<O>, Function3<T1, T2, T3, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2]),
+                r -> (a1, a2, a3) -> r,
+                unbox(t1), unbox(t2), unbox(t3)
+            );
+        }
 
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + fa.decoder + " * " + fb.decoder;
-                    }
-                }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, R> App<RecordCodecBuilder.Mu<O>, R> ap4(final App<RecordCodecBuilder.Mu<O>, Function4<T1, T2, T3, T4, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3]),
+                r -> (a1, a2, a3, a4) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4)
             );
         }
 
+        @SuppressWarnings("unchecked")
         @Override
-        public <T1, T2, T3, R> App<RecordCodecBuilder.Mu<O>, R> ap3(final App<RecordCodecBuilder.Mu<O>, Function3<T1, T2, T3, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3) {
-            final RecordCodecBuilder<O, Function3<T1, T2, T3, R>> function = unbox(func);
-            final RecordCodecBuilder<O, T1> f1 = unbox(t1);
-            final RecordCodecBuilder<O, T2> f2 = unbox(t2);
-            final RecordCodecBuilder<O, T3> f3 = unbox(t3);
+        public <T1, T2, T3, T4, T5, R> App<RecordCodecBuilder.Mu<O>, R> ap5(final App<RecordCodecBuilder.Mu<O>, Function5<T1, T2, T3, T4, T5, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4]),
+                r -> (a1, a2, a3, a4, a5) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5)
+            );
+        }
 
-            return new RecordCodecBuilder<>(
-                o -> function.getter.apply(o).apply(
-                    f1.getter.apply(o),
-                    f2.getter.apply(o),
-                    f3.getter.apply(o)
-                ),
-                o -> {
-                    final MapEncoder<Function3<T1, T2, T3, R>> fEncoder = function.encoder.apply(o);
-                    final MapEncoder<T1> e1 = f1.encoder.apply(o);
-                    final T1 v1 = f1.getter.apply(o);
-                    final MapEncoder<T2> e2 = f2.encoder.apply(o);
-                    final T2 v2 = f2.getter.apply(o);
-                    final MapEncoder<T3> e3 = f3.encoder.apply(o);
-                    final T3 v3 = f3.getter.apply(o);
-
-                    return new MapEncoder.Implementation<R>() {
-                        @Override
-                        public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                            e1.encode(v1, ops, prefix);
-                            e2.encode(v2, ops, prefix);
-                            e3.encode(v3, ops, prefix);
-                            fEncoder.encode((t1, t2, t3) -> input, ops, prefix);
-                            return prefix;
-                        }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, R> App<RecordCodecBuilder.Mu<O>, R> ap6(final App<RecordCodecBuilder.Mu<O>, Function6<T1, T2, T3, T4, T5, T6, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5]),
+                r -> (a1, a2, a3, a4, a5, a6) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6)
+            );
+        }
 
-                        @Override
-                        public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                            return Stream.of(
-                                fEncoder.keys(ops),
-                                e1.keys(ops),
-                                e2.keys(ops),
-                                e3.keys(ops)
-                            ).flatMap(Function.identity());
-                        }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, R> App<RecordCodecBuilder.Mu<O>, R> ap7(final App<RecordCodecBuilder.Mu<O>, Function7<T1, T2, T3, T4, T5, T6, T7, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6]),
+                r -> (a1, a2, a3, a4, a5, a6, a7) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7)
+            );
+        }
 
-                        @Override
-                        public String toString() {
-                            return fEncoder + " * " + e1 + " * " + e2 + " * " + e3;
-                        }
-                    };
-                },
-                new MapDecoder.Implementation<R>() {
-                    @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap3(
-                            function.decoder.decode(ops, input),
-                            f1.decoder.decode(ops, input),
-                            f2.decoder.decode(ops, input),
-                            f3.decoder.decode(ops, input)
-                        ));
-                    }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, R> App<RecordCodecBuilder.Mu<O>, R> ap8(final App<RecordCodecBuilder.Mu<O>, Function8<T1, T2, T3, T4, T5, T6, T7, T8, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8)
+            );
+        }
 
-                    @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            f1.decoder.keys(ops),
-                            f2.decoder.keys(ops),
-                            f3.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, R> App<RecordCodecBuilder.Mu<O>, R> ap9(final App<RecordCodecBuilder.Mu<O>, Function9<T1, T2, T3, T4, T5, T6, T7, T8, T9, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9)
+            );
+        }
 
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + f1.decoder + " * " + f2.decoder + " * " + f3.decoder;
-                    }
-                }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, R> App<RecordCodecBuilder.Mu<O>, R> ap10(final App<RecordCodecBuilder.Mu<O>, Function10<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8], (T10) v[9]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9, a10) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9), unbox(t10)
             );
         }
 
+        @SuppressWarnings("unchecked")
         @Override
-        public <T1, T2, T3, T4, R> App<RecordCodecBuilder.Mu<O>, R> ap4(final App<RecordCodecBuilder.Mu<O>, Function4<T1, T2, T3, T4, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4) {
-            final RecordCodecBuilder<O, Function4<T1, T2, T3, T4, R>> function = unbox(func);
-            final RecordCodecBuilder<O, T1> f1 = unbox(t1);
-            final RecordCodecBuilder<O, T2> f2 = unbox(t2);
-            final RecordCodecBuilder<O, T3> f3 = unbox(t3);
-            final RecordCodecBuilder<O, T4> f4 = unbox(t4);
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, R> App<RecordCodecBuilder.Mu<O>, R> ap11(final App<RecordCodecBuilder.Mu<O>, Function11<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8], (T10) v[9], (T11) v[10]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9), unbox(t10), unbox(t11)
+            );
+        }
 
-            return new RecordCodecBuilder<>(
-                o -> function.getter.apply(o).apply(
-                    f1.getter.apply(o),
-                    f2.getter.apply(o),
-                    f3.getter.apply(o),
-                    f4.getter.apply(o)
-                ),
-                o -> {
-                    final MapEncoder<Function4<T1, T2, T3, T4, R>> fEncoder = function.encoder.apply(o);
-                    final MapEncoder<T1> e1 = f1.encoder.apply(o);
-                    final T1 v1 = f1.getter.apply(o);
-                    final MapEncoder<T2> e2 = f2.encoder.apply(o);
-                    final T2 v2 = f2.getter.apply(o);
-                    final MapEncoder<T3> e3 = f3.encoder.apply(o);
-                    final T3 v3 = f3.getter.apply(o);
-                    final MapEncoder<T4> e4 = f4.encoder.apply(o);
-                    final T4 v4 = f4.getter.apply(o);
-
-                    return new MapEncoder.Implementation<R>() {
-                        @Override
-                        public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                            e1.encode(v1, ops, prefix);
-                            e2.encode(v2, ops, prefix);
-                            e3.encode(v3, ops, prefix);
-                            e4.encode(v4, ops, prefix);
-                            fEncoder.encode((t1, t2, t3, t4) -> input, ops, prefix);
-                            return prefix;
-                        }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, R> App<RecordCodecBuilder.Mu<O>, R> ap12(final App<RecordCodecBuilder.Mu<O>, Function12<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8], (T10) v[9], (T11) v[10], (T12) v[11]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9), unbox(t10), unbox(t11), unbox(t12)
+            );
+        }
 
-                        @Override
-                        public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                            return Stream.of(
-                                fEncoder.keys(ops),
-                                e1.keys(ops),
-                                e2.keys(ops),
-                                e3.keys(ops),
-                                e4.keys(ops)
-                            ).flatMap(Function.identity());
-                        }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, R> App<RecordCodecBuilder.Mu<O>, R> ap13(final App<RecordCodecBuilder.Mu<O>, Function13<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8], (T10) v[9], (T11) v[10], (T12) v[11], (T13) v[12]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9), unbox(t10), unbox(t11), unbox(t12), unbox(t13)
+            );
+        }
 
-                        @Override
-                        public String toString() {
-                            return fEncoder + " * " + e1 + " * " + e2 + " * " + e3 + " * " + e4;
-                        }
-                    };
-                },
-                new MapDecoder.Implementation<R>() {
-                    @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap4(
-                            function.decoder.decode(ops, input),
-                            f1.decoder.decode(ops, input),
-                            f2.decoder.decode(ops, input),
-                            f3.decoder.decode(ops, input),
-                            f4.decoder.decode(ops, input)
-                        ));
-                    }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, R> App<RecordCodecBuilder.Mu<O>, R> ap14(final App<RecordCodecBuilder.Mu<O>, Function14<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13, final App<RecordCodecBuilder.Mu<O>, T14> t14) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8], (T10) v[9], (T11) v[10], (T12) v[11], (T13) v[12], (T14) v[13]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9), unbox(t10), unbox(t11), unbox(t12), unbox(t13), unbox(t14)
+            );
+        }
 
-                    @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            f1.decoder.keys(ops),
-                            f2.decoder.keys(ops),
-                            f3.decoder.keys(ops),
-                            f4.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, R> App<RecordCodecBuilder.Mu<O>, R> ap15(final App<RecordCodecBuilder.Mu<O>, Function15<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13, final App<RecordCodecBuilder.Mu<O>, T14> t14, final App<RecordCodecBuilder.Mu<O>, T15> t15) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8], (T10) v[9], (T11) v[10], (T12) v[11], (T13) v[12], (T14) v[13], (T15) v[14]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9), unbox(t10), unbox(t11), unbox(t12), unbox(t13), unbox(t14), unbox(t15)
+            );
+        }
 
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + f1.decoder + " * " + f2.decoder + " * " + f3.decoder + " * " + f4.decoder;
-                    }
-                }
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, T16, R> App<RecordCodecBuilder.Mu<O>, R> ap16(final App<RecordCodecBuilder.Mu<O>, Function16<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, T16, R>> func, final App<RecordCodecBuilder.Mu<O>, T1> t1, final App<RecordCodecBuilder.Mu<O>, T2> t2, final App<RecordCodecBuilder.Mu<O>, T3> t3, final App<RecordCodecBuilder.Mu<O>, T4> t4, final App<RecordCodecBuilder.Mu<O>, T5> t5, final App<RecordCodecBuilder.Mu<O>, T6> t6, final App<RecordCodecBuilder.Mu<O>, T7> t7, final App<RecordCodecBuilder.Mu<O>, T8> t8, final App<RecordCodecBuilder.Mu<O>, T9> t9, final App<RecordCodecBuilder.Mu<O>, T10> t10, final App<RecordCodecBuilder.Mu<O>, T11> t11, final App<RecordCodecBuilder.Mu<O>, T12> t12, final App<RecordCodecBuilder.Mu<O>, T13> t13, final App<RecordCodecBuilder.Mu<O>, T14> t14, final App<RecordCodecBuilder.Mu<O>, T15> t15, final App<RecordCodecBuilder.Mu<O>, T16> t16) {
+            return flat(
+                unbox(func),
+                (f, v) -> f.apply((T1) v[0], (T2) v[1], (T3) v[2], (T4) v[3], (T5) v[4], (T6) v[5], (T7) v[6], (T8) v[7], (T9) v[8], (T10) v[9], (T11) v[10], (T12) v[11], (T13) v[12], (T14) v[13], (T15) v[14], (T16) v[15]),
+                r -> (a1, a2, a3, a4, a5, a6, a7, a8, a9, a10, a11, a12, a13, a14, a15, a16) -> r,
+                unbox(t1), unbox(t2), unbox(t3), unbox(t4), unbox(t5), unbox(t6), unbox(t7), unbox(t8), unbox(t9), unbox(t10), unbox(t11), unbox(t12), unbox(t13), unbox(t14), unbox(t15), unbox(t16)
             );
         }
 
@@ -0,0 +1,62 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.codecs;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.WorkStack;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import org.apache.commons.lang3.tuple.Triple;
+
+import javax.annotation.Nullable;
+import java.util.function.Function;
+
+/**
+ * Codec of values that contain values of the same type. Every nested value is decoded and encoded through
+ * {@link WorkStack}, so deeply nested data does not need a deep call stack.
+ */
+public final class RecursiveCodec<A> implements Codec<A> {
+    private enum Step {
+        DECODE,
+        ENCODE
+    }
+
+    private final String name;
+    private final Function<Codec<A>, Codec<A>> wrapped;
+    @Nullable
+    private volatile Codec<A> codec;
+
+    public RecursiveCodec(final String name, final Function<Codec<A>, Codec<A>> wrapped) {
+        this.name = name;
+        this.wrapped = wrapped;
+    }
+
+    private Codec<A> codec() {
+        Codec<A> codec = this.codec;
+        if (codec == null) {
+            codec = wrapped.apply(this);
+            this.codec = codec;
+        }
+        return codec;
+    }
+
+    @Override
+    public <T> DataResult<Pair<A, T>> decode(final DynamicOps<T> ops, final T input) {
+        return WorkStack.apply(Triple.of(this, ops, Step.DECODE), input, t -> codec().decode(ops, t));
+    }
+
+    @Override
+    public <T> DataResult<T> encode(final A input, final DynamicOps<T> ops, final T prefix) {
+        if (prefix != ops.empty()) {
+            // the result depends on the prefix too, nested values are encoded without one
+            return codec().encode(input, ops, prefix);
+        }
+        return WorkStack.apply(Triple.of(this, ops, Step.ENCODE), input, a -> codec().encode(a, ops, prefix));
+    }
+
+    @Override
+    public String toString() {
+        return "RecursiveCodec[" + name + ']';
+    }
+}
@@ -0,0 +1,145 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.Unit;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Decoder;
+import com.mojang.serialization.Encoder;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.Lifecycle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Writes and reads JSON without holding the whole document. Top level lists and maps are streamed: each element is
+ * encoded and written before the next one is requested, and when reading, each element is parsed and decoded
+ * when the stream reaches it, so only one element is held in memory at a time.
+ */
+public final class JsonStreams {
+    private JsonStreams() {
+    }
+
+    /**
+     * Reads the elements of a JSON array one at a time. The array is opened right away, elements are parsed when the
+     * returned stream consumes them. Syntax and I/O errors are thrown as {@link JsonParseException}s.
+     */
+    public static <A> Stream<DataResult<A>> readList(final Decoder<A> elementDecoder, final JsonReader reader) throws IOException {
+        reader.beginArray();
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<DataResult<A>>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int index;
+
+            @Override
+            public boolean tryAdvance(final Consumer<? super DataResult<A>> action) {
+                try {
+                    if (!reader.hasNext()) {
+                        reader.endArray();
+                        return false;
+                    }
+                } catch (final IOException e) {
+                    throw new JsonIOException(e);
+                }
+                final int i = index++;
+                final JsonElement element = new JsonParser().parse(reader);
+                action.accept(elementDecoder.parse(JsonOps.INSTANCE, element).mapError(e -> "[" + i + "]: " + e));
+                return true;
+            }
+        }, false);
+    }
+
+    /**
+     * Reads the entries of a JSON object one at a time, see {@link #readList}.
+     */
+    public static <A> Stream<Pair<String, DataResult<A>>> readMap(final Decoder<A> valueDecoder, final JsonReader reader) throws IOException {
+        reader.beginObject();
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Pair<String, DataResult<A>>>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(final Consumer<? super Pair<String, DataResult<A>>> action) {
+                final String key;
+                try {
+                    if (!reader.hasNext()) {
+                        reader.endObject();
+                        return false;
+                    }
+                    key = reader.nextName();
+                } catch (final IOException e) {
+                    throw new JsonIOException(e);
+                }
+                final JsonElement value = new JsonParser().parse(reader);
+                action.accept(Pair.of(key, valueDecoder.parse(JsonOps.INSTANCE, value).mapError(e -> key + ": " + e)));
+                return true;
+            }
+        }, false);
+    }
+
+    public static <A> DataResult<Unit> write(final Encoder<A> encoder, final A value, final Writer writer) throws IOException {
+        final DataResult<JsonText> result = encoder.encodeStart(JsonTextOps.INSTANCE, value);
+        if (result.result().isPresent()) {
+            result.result().get().writeTo(writer);
+        }
+        return result.map(t -> Unit.INSTANCE);
+    }
+
+    /**
+     * Writes a JSON array of the elements. Elements that fail to encode are left out, their errors are returned.
+     */
+    public static <A> DataResult<Unit> writeList(final Encoder<A> elementEncoder, final Stream<? extends A> elements, final Writer writer) throws IOException {
+        DataResult<Unit> result = DataResult.success(Unit.INSTANCE, Lifecycle.stable());
+        boolean first = true;
+        writer.write('[');
+        for (final Iterator<? extends A> iterator = elements.iterator(); iterator.hasNext(); ) {
+            final DataResult<JsonText> element = elementEncoder.encodeStart(JsonTextOps.INSTANCE, iterator.next());
+            if (element.result().isPresent()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                element.result().get().writeTo(writer);
+            }
+            result = result.apply2stable((r, e) -> r, element);
+        }
+        writer.write(']');
+        return result.setPartial(Unit.INSTANCE);
+    }
+
+    /**
+     * Writes a JSON object of the entries. Keys are written as given, so they must be distinct.
+     * Entries whose value fails to encode are left out, their errors are returned.
+     */
+    public static <A> DataResult<Unit> writeMap(final Encoder<A> valueEncoder, final Stream<Pair<String, ? extends A>> entries, final Writer writer) throws IOException {
+        DataResult<Unit> result = DataResult.success(Unit.INSTANCE, Lifecycle.stable());
+        final StringBuilder key = new StringBuilder();
+        boolean first = true;
+        writer.write('{');
+        for (final Iterator<Pair<String, ? extends A>> iterator = entries.iterator(); iterator.hasNext(); ) {
+            final Pair<String, ? extends A> entry = iterator.next();
+            final DataResult<JsonText> value = valueEncoder.encodeStart(JsonTextOps.INSTANCE, entry.getSecond());
+            if (value.result().isPresent()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                key.setLength(0);
+                JsonText.quote(entry.getFirst(), key);
+                writer.append(key).append(':');
+                value.result().get().writeTo(writer);
+            }
+            result = result.apply2stable((r, v) -> r, value.mapError(e -> entry.getFirst() + ": " + e));
+        }
+        writer.write('}');
+        return result.setPartial(Unit.INSTANCE);
+    }
+}
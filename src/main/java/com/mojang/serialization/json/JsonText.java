@@ -0,0 +1,282 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.json;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Value of {@link JsonTextOps}: a piece of serialized JSON. Primitives keep their value. Built arrays and objects keep
+ * their elements and are only turned into text when written, arrays and objects read back from text keep that text.
+ */
+public final class JsonText {
+    public enum Kind {
+        NULL,
+        BOOLEAN,
+        NUMBER,
+        STRING,
+        ARRAY,
+        OBJECT
+    }
+
+    public static final JsonText NULL = new JsonText(Kind.NULL, null, "null");
+    public static final JsonText TRUE = new JsonText(Kind.BOOLEAN, true, "true");
+    public static final JsonText FALSE = new JsonText(Kind.BOOLEAN, false, "false");
+    static final JsonText EMPTY_ARRAY = new JsonText(Kind.ARRAY, null, "[]");
+    static final JsonText EMPTY_OBJECT = new JsonText(Kind.OBJECT, null, "{}");
+
+    private final Kind kind;
+    @Nullable
+    private final Object value;
+    /** keys of a built object */
+    @Nullable
+    private final String[] keys;
+    /** elements of a built array or values of a built object */
+    @Nullable
+    private final JsonText[] elements;
+    @Nullable
+    private String text;
+
+    private JsonText(final Kind kind, @Nullable final Object value, @Nullable final String text) {
+        this(kind, value, null, null, text);
+    }
+
+    private JsonText(final Kind kind, @Nullable final Object value, @Nullable final String[] keys, @Nullable final JsonText[] elements, @Nullable final String text) {
+        this.kind = kind;
+        this.value = value;
+        this.keys = keys;
+        this.elements = elements;
+        this.text = text;
+    }
+
+    public static JsonText of(final boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public static JsonText of(final Number value) {
+        return new JsonText(Kind.NUMBER, Objects.requireNonNull(value), null);
+    }
+
+    public static JsonText of(final String value) {
+        return new JsonText(Kind.STRING, Objects.requireNonNull(value), null);
+    }
+
+    /**
+     * A number read back from JSON text, which is written as it was read.
+     */
+    static JsonText number(final Number value, final String text) {
+        return new JsonText(Kind.NUMBER, Objects.requireNonNull(value), text);
+    }
+
+    /**
+     * Wraps JSON text of an array or object, the text is not validated.
+     */
+    static JsonText container(final Kind kind, final String text) {
+        return new JsonText(kind, null, text);
+    }
+
+    /**
+     * An array of the elements, which are kept as they are and written when the array is.
+     */
+    static JsonText array(final JsonText[] elements) {
+        return elements.length == 0 ? EMPTY_ARRAY : new JsonText(Kind.ARRAY, null, null, elements, null);
+    }
+
+    /**
+     * An object of the distinct keys and their values, see {@link #array}.
+     */
+    static JsonText object(final String[] keys, final JsonText[] values) {
+        return keys.length == 0 ? EMPTY_OBJECT : new JsonText(Kind.OBJECT, null, keys, values, null);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * The boolean, number or string of a primitive, null for arrays, objects and null.
+     */
+    @Nullable
+    public Object value() {
+        return value;
+    }
+
+    public boolean isContainer() {
+        return kind == Kind.ARRAY || kind == Kind.OBJECT;
+    }
+
+    /**
+     * The keys of an object built from its values, null for objects read back from text.
+     */
+    @Nullable
+    String[] keys() {
+        return keys;
+    }
+
+    /**
+     * The elements of an array or the values of an object built from them, null for those read back from text.
+     */
+    @Nullable
+    JsonText[] elements() {
+        return elements;
+    }
+
+    /**
+     * Writes the text straight to the output. Nested arrays and objects are walked with a stack instead of recursion,
+     * so deep nesting does not need a deep call stack.
+     */
+    public void writeTo(final Appendable output) throws IOException {
+        if (elements == null || text != null) {
+            output.append(toString());
+            return;
+        }
+        final StringBuilder scratch = new StringBuilder();
+        JsonText[] containers = new JsonText[16];
+        int[] positions = new int[16];
+        int depth = 0;
+        JsonText next = this;
+        while (true) {
+            if (next != null) {
+                if (next.elements == null || next.text != null) {
+                    next.writeLeaf(output, scratch);
+                } else {
+                    if (depth == containers.length) {
+                        containers = Arrays.copyOf(containers, depth * 2);
+                        positions = Arrays.copyOf(positions, depth * 2);
+                    }
+                    output.append(next.kind == Kind.ARRAY ? '[' : '{');
+                    containers[depth] = next;
+                    positions[depth] = 0;
+                    depth++;
+                }
+                next = null;
+            }
+            if (depth == 0) {
+                return;
+            }
+            final JsonText container = containers[depth - 1];
+            final int position = positions[depth - 1];
+            if (position == container.elements.length) {
+                output.append(container.kind == Kind.ARRAY ? ']' : '}');
+                containers[--depth] = null;
+                continue;
+            }
+            if (position > 0) {
+                output.append(',');
+            }
+            if (container.keys != null) {
+                scratch.setLength(0);
+                quote(container.keys[position], scratch);
+                output.append(scratch).append(':');
+            }
+            positions[depth - 1] = position + 1;
+            next = container.elements[position];
+        }
+    }
+
+    private void writeLeaf(final Appendable output, final StringBuilder scratch) throws IOException {
+        if (text == null && kind == Kind.STRING) {
+            scratch.setLength(0);
+            quote((String) value, scratch);
+            output.append(scratch);
+        } else {
+            output.append(toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        String text = this.text;
+        if (text == null) {
+            if (kind == Kind.STRING) {
+                final StringBuilder builder = new StringBuilder(((String) value).length() + 2);
+                quote((String) value, builder);
+                text = builder.toString();
+            } else if (elements != null) {
+                final StringBuilder builder = new StringBuilder(elements.length * 8);
+                try {
+                    writeTo(builder);
+                } catch (final IOException e) {
+                    throw new AssertionError(e);
+                }
+                text = builder.toString();
+            } else {
+                text = value.toString();
+            }
+            this.text = text;
+        }
+        return text;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JsonText)) {
+            return false;
+        }
+        final JsonText other = (JsonText) o;
+        if (kind != other.kind) {
+            return false;
+        }
+        if (value != null) {
+            return value.equals(other.value);
+        }
+        return toString().equals(other.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * kind.hashCode() + (value != null ? value.hashCode() : toString().hashCode());
+    }
+
+    /**
+     * Appends the string as a JSON string literal, escaped like Gson does without HTML escaping.
+     */
+    static void quote(final String value, final StringBuilder output) {
+        output.append('"');
+        int last = 0;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final String replacement;
+            if (c < 0x20) {
+                switch (c) {
+                    case '\t':
+                        replacement = "\\t";
+                        break;
+                    case '\b':
+                        replacement = "\\b";
+                        break;
+                    case '\n':
+                        replacement = "\\n";
+                        break;
+                    case '\r':
+                        replacement = "\\r";
+                        break;
+                    case '\f':
+                        replacement = "\\f";
+                        break;
+                    default:
+                        replacement = String.format("\\u%04x", (int) c);
+                }
+            } else if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+            output.append(value, last, i).append(replacement);
+            last = i + 1;
+        }
+        output.append(value, last, length).append('"');
+    }
+}
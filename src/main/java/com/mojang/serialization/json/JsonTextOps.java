@@ -0,0 +1,486 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.json;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
+import com.mojang.serialization.ValueVisitor;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Encodes to JSON text instead of element trees. Arrays and objects keep their elements until they are written, which
+ * walks the whole value once, so nesting costs no more than the size of the data. Reading or merging into built arrays
+ * and objects uses their elements, those read back from text are split again and values keep the text they were
+ * written with.
+ */
+public class JsonTextOps implements DynamicOps<JsonText> {
+    public static final JsonTextOps INSTANCE = new JsonTextOps();
+
+    protected JsonTextOps() {
+    }
+
+    @Override
+    public JsonText empty() {
+        return JsonText.NULL;
+    }
+
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final JsonText input) {
+        return visit(input, outOps.visitor());
+    }
+
+    @Override
+    public <U> U visit(final JsonText input, final ValueVisitor<U> visitor) {
+        switch (input.kind()) {
+            case NULL:
+                return visitor.visitEmpty();
+            case BOOLEAN:
+                return visitor.visitBoolean((Boolean) input.value());
+            case NUMBER:
+                return visitor.visitNumber((Number) input.value());
+            case STRING:
+                return visitor.visitString((String) input.value());
+            default:
+                return JsonOps.INSTANCE.visit(parse(input), visitor);
+        }
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final JsonText input) {
+        if (input.kind() == JsonText.Kind.NUMBER) {
+            return DataResult.success((Number) input.value());
+        }
+        if (input.kind() == JsonText.Kind.BOOLEAN) {
+            return DataResult.success((Boolean) input.value() ? 1 : 0);
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public JsonText createNumeric(final Number i) {
+        return JsonText.of(i);
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final JsonText input) {
+        if (input.kind() == JsonText.Kind.BOOLEAN) {
+            return DataResult.success((Boolean) input.value());
+        }
+        if (input.kind() == JsonText.Kind.NUMBER) {
+            return DataResult.success(((Number) input.value()).byteValue() != 0);
+        }
+        return DataResult.error(() -> "Not a boolean: " + input);
+    }
+
+    @Override
+    public JsonText createBoolean(final boolean value) {
+        return JsonText.of(value);
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final JsonText input) {
+        if (input.kind() == JsonText.Kind.STRING) {
+            return DataResult.success((String) input.value());
+        }
+        return DataResult.error(() -> "Not a string: " + input);
+    }
+
+    @Override
+    public JsonText createString(final String value) {
+        return JsonText.of(value);
+    }
+
+    @Override
+    public DataResult<JsonText> mergeToList(final JsonText list, final JsonText value) {
+        return mergeToList(list, ImmutableList.of(value));
+    }
+
+    @Override
+    public DataResult<JsonText> mergeToList(final JsonText list, final List<JsonText> values) {
+        if (list.kind() != JsonText.Kind.ARRAY && list != empty()) {
+            return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+        }
+        if (list == empty() || list.equals(JsonText.EMPTY_ARRAY)) {
+            return DataResult.success(array(values));
+        }
+        if (values.isEmpty()) {
+            return DataResult.success(list);
+        }
+        final List<JsonText> elements = elements(list);
+        elements.addAll(values);
+        return DataResult.success(array(elements));
+    }
+
+    @Override
+    public DataResult<JsonText> mergeToMap(final JsonText map, final JsonText key, final JsonText value) {
+        if (map.kind() != JsonText.Kind.OBJECT && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        if (key.kind() != JsonText.Kind.STRING) {
+            return DataResult.error(() -> "key is not a string: " + key, map);
+        }
+        final Map<String, JsonText> fields = fields(map);
+        fields.put((String) key.value(), value);
+        return DataResult.success(object(fields));
+    }
+
+    @Override
+    public DataResult<JsonText> mergeToMap(final JsonText map, final MapLike<JsonText> values) {
+        if (map.kind() != JsonText.Kind.OBJECT && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        final Map<String, JsonText> fields = fields(map);
+        final List<JsonText> missed = Lists.newArrayList();
+        values.entries().forEach(entry -> {
+            if (entry.getFirst().kind() != JsonText.Kind.STRING) {
+                missed.add(entry.getFirst());
+                return;
+            }
+            fields.put((String) entry.getFirst().value(), entry.getSecond());
+        });
+        final JsonText output = object(fields);
+        if (!missed.isEmpty()) {
+            return DataResult.error(() -> "some keys are not strings: " + missed, output);
+        }
+        return DataResult.success(output);
+    }
+
+    @Override
+    public DataResult<Stream<Pair<JsonText, JsonText>>> getMapValues(final JsonText input) {
+        if (input.kind() != JsonText.Kind.OBJECT) {
+            return DataResult.error(() -> "Not a JSON object: " + input);
+        }
+        return DataResult.success(fields(input).entrySet().stream().map(e -> Pair.of(createString(e.getKey()), nullIfEmpty(e.getValue()))));
+    }
+
+    @Override
+    public DataResult<Consumer<BiConsumer<JsonText, JsonText>>> getMapEntries(final JsonText input) {
+        if (input.kind() != JsonText.Kind.OBJECT) {
+            return DataResult.error(() -> "Not a JSON object: " + input);
+        }
+        final Map<String, JsonText> fields = fields(input);
+        return DataResult.success(c -> fields.forEach((key, value) -> c.accept(createString(key), nullIfEmpty(value))));
+    }
+
+    @Override
+    public DataResult<MapLike<JsonText>> getMap(final JsonText input) {
+        if (input.kind() != JsonText.Kind.OBJECT) {
+            return DataResult.error(() -> "Not a JSON object: " + input);
+        }
+        final Map<String, JsonText> fields = fields(input);
+        return DataResult.success(new MapLike<JsonText>() {
+            @Nullable
+            @Override
+            public JsonText get(final JsonText key) {
+                return key.kind() == JsonText.Kind.STRING ? get((String) key.value()) : null;
+            }
+
+            @Nullable
+            @Override
+            public JsonText get(final String key) {
+                return nullIfEmpty(fields.get(key));
+            }
+
+            @Override
+            public Stream<Pair<JsonText, JsonText>> entries() {
+                return fields.entrySet().stream().map(e -> Pair.of(createString(e.getKey()), e.getValue()));
+            }
+
+            @Override
+            public String toString() {
+                return "MapLike[" + input + "]";
+            }
+        });
+    }
+
+    @Override
+    public JsonText createMap(final Stream<Pair<JsonText, JsonText>> map) {
+        final Map<String, JsonText> fields = new LinkedHashMap<>();
+        map.forEach(p -> fields.put((String) p.getFirst().value(), p.getSecond()));
+        return object(fields);
+    }
+
+    @Override
+    public DataResult<Stream<JsonText>> getStream(final JsonText input) {
+        if (input.kind() != JsonText.Kind.ARRAY) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        return DataResult.success(elements(input).stream().map(this::nullIfEmpty));
+    }
+
+    @Override
+    public JsonText createList(final Stream<JsonText> input) {
+        return array(input.collect(Collectors.toList()));
+    }
+
+    @Override
+    public JsonText remove(final JsonText input, final String key) {
+        if (input.kind() == JsonText.Kind.OBJECT) {
+            final Map<String, JsonText> fields = fields(input);
+            if (fields.remove(key) != null) {
+                return object(fields);
+            }
+        }
+        return input;
+    }
+
+    @Override
+    public RecordBuilder<JsonText> mapBuilder() {
+        return new TextRecordBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "JSON text";
+    }
+
+    @Nullable
+    private JsonText nullIfEmpty(@Nullable final JsonText value) {
+        return value == empty() ? null : value;
+    }
+
+    private static JsonElement parse(final JsonText input) {
+        return new JsonParser().parse(input.toString());
+    }
+
+    private Map<String, JsonText> fields(final JsonText map) {
+        final Map<String, JsonText> fields = new LinkedHashMap<>();
+        final String[] keys = map.keys();
+        if (keys != null) {
+            final JsonText[] values = map.elements();
+            for (int i = 0; i < keys.length; i++) {
+                fields.put(keys[i], values[i]);
+            }
+        } else if (map.kind() == JsonText.Kind.OBJECT && !map.equals(JsonText.EMPTY_OBJECT)) {
+            final TextReader reader = new TextReader(map.toString());
+            reader.expect('{');
+            do {
+                final String key = reader.string();
+                reader.expect(':');
+                fields.put(key, reader.value());
+            } while (reader.next(','));
+            reader.expect('}');
+        }
+        return fields;
+    }
+
+    private List<JsonText> elements(final JsonText list) {
+        final JsonText[] built = list.elements();
+        if (built != null) {
+            return Lists.newArrayList(built);
+        }
+        final List<JsonText> elements = Lists.newArrayList();
+        if (!list.equals(JsonText.EMPTY_ARRAY)) {
+            final TextReader reader = new TextReader(list.toString());
+            reader.expect('[');
+            do {
+                elements.add(reader.value());
+            } while (reader.next(','));
+            reader.expect(']');
+        }
+        return elements;
+    }
+
+    /**
+     * Number values are classified like {@link JsonOps} reads them, their text is kept as it was written.
+     */
+    private JsonText number(final String text) {
+        Number value;
+        try {
+            value = new BigDecimal(text);
+        } catch (final NumberFormatException e) {
+            // NaN and infinities, which are written like Gson does
+            value = Double.parseDouble(text);
+        }
+        return JsonText.number((Number) JsonOps.INSTANCE.convertTo(this, new JsonPrimitive(value)).value(), text);
+    }
+
+    static JsonText array(final Collection<JsonText> values) {
+        return JsonText.array(values.toArray(new JsonText[0]));
+    }
+
+    static JsonText object(final Map<String, JsonText> fields) {
+        final String[] keys = new String[fields.size()];
+        final JsonText[] values = new JsonText[fields.size()];
+        int i = 0;
+        for (final Map.Entry<String, JsonText> field : fields.entrySet()) {
+            keys[i] = field.getKey();
+            values[i++] = field.getValue();
+        }
+        return JsonText.object(keys, values);
+    }
+
+    /**
+     * Splits the text of an array or object into the text of its values, nested arrays and objects are not split.
+     */
+    private final class TextReader {
+        private final String text;
+        private int pos;
+
+        private TextReader(final String text) {
+            this.text = text;
+        }
+
+        private char peek() {
+            while (pos < text.length()) {
+                final char c = text.charAt(pos);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return c;
+                }
+                pos++;
+            }
+            throw new IllegalStateException("Unexpected end of JSON text: " + text);
+        }
+
+        private boolean next(final char expected) {
+            if (peek() == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(final char expected) {
+            if (!next(expected)) {
+                throw new IllegalStateException("Expected '" + expected + "' at " + pos + " in JSON text: " + text);
+            }
+        }
+
+        private String string() {
+            expect('"');
+            final StringBuilder builder = new StringBuilder();
+            char c;
+            while ((c = charAt(pos++)) != '"') {
+                if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+                c = charAt(pos++);
+                switch (c) {
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'u':
+                        builder.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        builder.append(c);
+                }
+            }
+            return builder.toString();
+        }
+
+        private JsonText value() {
+            final char first = peek();
+            if (first == '"') {
+                return createString(string());
+            }
+            final int start = pos;
+            if (first == '{' || first == '[') {
+                skipContainer();
+                return JsonText.container(first == '{' ? JsonText.Kind.OBJECT : JsonText.Kind.ARRAY, text.substring(start, pos));
+            }
+            while (pos < text.length() && ",]} \t\n\r".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            final String token = text.substring(start, pos);
+            switch (token) {
+                case "null":
+                    return JsonText.NULL;
+                case "true":
+                    return JsonText.TRUE;
+                case "false":
+                    return JsonText.FALSE;
+                default:
+                    return number(token);
+            }
+        }
+
+        private void skipContainer() {
+            int depth = 0;
+            do {
+                char c = charAt(pos++);
+                if (c == '"') {
+                    while ((c = charAt(pos++)) != '"') {
+                        if (c == '\\') {
+                            pos++;
+                        }
+                    }
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        }
+
+        private char charAt(final int index) {
+            if (index >= text.length()) {
+                throw new IllegalStateException("Unexpected end of JSON text: " + text);
+            }
+            return text.charAt(index);
+        }
+    }
+
+    private class TextRecordBuilder extends RecordBuilder.AbstractStringBuilder<JsonText, Map<String, JsonText>> {
+        protected TextRecordBuilder() {
+            super(JsonTextOps.this);
+        }
+
+        @Override
+        protected Map<String, JsonText> initBuilder() {
+            return new LinkedHashMap<>();
+        }
+
+        @Override
+        protected Map<String, JsonText> append(final String key, final JsonText value, final Map<String, JsonText> builder) {
+            builder.put(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<JsonText> build(final Map<String, JsonText> builder, final JsonText prefix) {
+            if (prefix == null || prefix == empty()) {
+                return DataResult.success(object(builder));
+            }
+            if (prefix.kind() == JsonText.Kind.OBJECT) {
+                final Map<String, JsonText> fields = fields(prefix);
+                fields.putAll(builder);
+                return DataResult.success(object(fields));
+            }
+            return DataResult.error(() -> "mergeToMap called with not a map: " + prefix, prefix);
+        }
+    }
+}
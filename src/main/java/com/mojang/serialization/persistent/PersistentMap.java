@@ -0,0 +1,401 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.persistent;
+
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable map in insertion order, like {@link java.util.LinkedHashMap}. Keys are indexed by a hash array mapped trie,
+ * entries are kept in a {@link PersistentVector}. {@link #with} and {@link #without} return a new map in O(log n),
+ * sharing all untouched nodes with this one. Keys and values must not be null.
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /** takes the place of removed entries until there are more of them than live ones */
+    private static final Object REMOVED = new Object();
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, PersistentVector.empty(), 0);
+
+    /** key to its position in {@link #entries} */
+    @Nullable
+    private final Node index;
+    private final PersistentVector<Object> entries;
+    private final int size;
+
+    private PersistentMap(@Nullable final Node index, final PersistentVector<Object> entries, final int size) {
+        this.index = index;
+        this.entries = entries;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> copyOf(final Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentMap) {
+            return (PersistentMap<K, V>) map;
+        }
+        PersistentMap<K, V> result = empty();
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            result = result.with(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return position(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public V get(final Object key) {
+        final int position = position(key);
+        return position < 0 ? null : ((Map.Entry<K, V>) entries.get(position)).getValue();
+    }
+
+    private int position(@Nullable final Object key) {
+        if (index == null || key == null) {
+            return -1;
+        }
+        final Object position = index.find(key, hash(key), 0);
+        return position == null ? -1 : (Integer) position;
+    }
+
+    /**
+     * Returns a map with the key set to the value, or this map if it already holds that exact value.
+     * New keys go last, existing keys keep their position.
+     */
+    public PersistentMap<K, V> with(final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        final int position = position(key);
+        if (position >= 0) {
+            if (((Map.Entry<?, ?>) entries.get(position)).getValue() == value) {
+                return this;
+            }
+            return new PersistentMap<>(index, entries.with(position, new SimpleImmutableEntry<>(key, value)), size);
+        }
+        final int hash = hash(key);
+        final Integer newPosition = entries.size();
+        final Node newIndex = index == null ? BitmapNode.single(key, newPosition, hash, 0) : index.put(key, newPosition, hash, 0);
+        return new PersistentMap<>(newIndex, entries.plus(new SimpleImmutableEntry<>(key, value)), size + 1);
+    }
+
+    /**
+     * Returns a map without the key, or this map if it does not contain it.
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentMap<K, V> without(final Object key) {
+        final int position = position(key);
+        if (position < 0) {
+            return this;
+        }
+        if (size == 1) {
+            return empty();
+        }
+        final PersistentMap<K, V> result = new PersistentMap<>(index.remove(key, hash(key), 0), entries.with(position, REMOVED), size - 1);
+        if (result.entries.size() - result.size > Math.max(result.size, 16)) {
+            PersistentMap<K, V> compacted = empty();
+            for (final Map.Entry<K, V> entry : result.entrySet()) {
+                compacted = compacted.with(entry.getKey(), entry.getValue());
+            }
+            return compacted;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        entries.forEach(entry -> {
+            if (entry != REMOVED) {
+                action.accept(((Map.Entry<K, V>) entry).getKey(), ((Map.Entry<K, V>) entry).getValue());
+            }
+        });
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private abstract static class Node {
+        /**
+         * Alternating keys and values. A null key marks a value that is a child node.
+         */
+        final Object[] array;
+
+        Node(final Object[] array) {
+            this.array = array;
+        }
+
+        @Nullable
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift);
+
+        @Nullable
+        abstract Node remove(Object key, int hash, int shift);
+
+        boolean isSingleEntry() {
+            return array.length == 2 && array[0] != null;
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+        private final int bitmap;
+
+        BitmapNode(final int bitmap, final Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        static BitmapNode single(final Object key, final Object value, final int hash, final int shift) {
+            return new BitmapNode(bit(hash, shift), new Object[]{key, value});
+        }
+
+        private static int bit(final int hash, final int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int index(final int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Nullable
+        @Override
+        Object find(final Object key, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            final int i = index(bit);
+            final Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(key, hash, shift + BITS);
+            }
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(final Object key, final Object value, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            final int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            final Object k = array[i];
+            final Object v = array[i + 1];
+            if (k == null) {
+                final Node child = ((Node) v).put(key, value, hash, shift + BITS);
+                if (child == v) {
+                    return this;
+                }
+                return with(i, null, child);
+            }
+            if (key.equals(k)) {
+                if (value == v) {
+                    return this;
+                }
+                return with(i, k, value);
+            }
+            return with(i, null, merge(k, v, hash(k), key, value, hash, shift + BITS));
+        }
+
+        private Node with(final int i, @Nullable final Object key, final Object value) {
+            final Object[] newArray = array.clone();
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private static Node merge(final Object key1, final Object value1, final int hash1, final Object key2, final Object value2, final int hash2, final int shift) {
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            final int bit1 = bit(hash1, shift);
+            final int bit2 = bit(hash2, shift);
+            if (bit1 == bit2) {
+                return new BitmapNode(bit1, new Object[]{null, merge(key1, value1, hash1, key2, value2, hash2, shift + BITS)});
+            }
+            if (Integer.compareUnsigned(bit1, bit2) < 0) {
+                return new BitmapNode(bit1 | bit2, new Object[]{key1, value1, key2, value2});
+            }
+            return new BitmapNode(bit1 | bit2, new Object[]{key2, value2, key1, value1});
+        }
+
+        @Nullable
+        @Override
+        Node remove(final Object key, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int i = index(bit);
+            final Object k = array[i];
+            if (k == null) {
+                final Node child = (Node) array[i + 1];
+                final Node newChild = child.remove(key, hash, shift + BITS);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild == null) {
+                    return without(bit, i);
+                }
+                if (newChild.isSingleEntry()) {
+                    return with(i, newChild.array[0], newChild.array[1]);
+                }
+                return with(i, null, newChild);
+            }
+            if (!key.equals(k)) {
+                return this;
+            }
+            return without(bit, i);
+        }
+
+        @Nullable
+        private Node without(final int bit, final int i) {
+            if (array.length == 2) {
+                return null;
+            }
+            final Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+    }
+
+    /**
+     * Keys whose hashes are fully equal.
+     */
+    private static final class CollisionNode extends Node {
+        private final int hash;
+
+        CollisionNode(final int hash, final Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(final Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Nullable
+        @Override
+        Object find(final Object key, final int hash, final int shift) {
+            final int i = indexOf(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        Node put(final Object key, final Object value, final int hash, final int shift) {
+            if (hash != this.hash) {
+                final BitmapNode node = new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[]{null, this});
+                return node.put(key, value, hash, shift);
+            }
+            final int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                final Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            final Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Nullable
+        @Override
+        Node remove(final Object key, final int hash, final int shift) {
+            final int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            final Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new CollisionNode(hash, newArray);
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private int position = -1;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                position++;
+            } while (position < entries.size() && entries.get(position) == REMOVED);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < entries.size();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Map.Entry<K, V> result = (Map.Entry<K, V>) entries.get(position);
+            advance();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.persistent;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JavaOps;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
+import com.mojang.serialization.ValueVisitor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link JavaOps} whose maps and lists are {@link PersistentMap}s and {@link PersistentVector}s. Setting, updating
+ * and removing fields costs O(log n) and shares everything else with the original value, where copying ops pay
+ * for the whole map on every edit. Plain Java maps and lists are accepted as input and copied on their first edit.
+ * Converting from and to other ops, such as {@code JsonOps}, is a single {@link #visit} walk.
+ */
+public class PersistentOps extends JavaOps {
+    public static final PersistentOps INSTANCE = new PersistentOps();
+
+    protected PersistentOps() {
+    }
+
+    @Override
+    public Object emptyMap() {
+        return PersistentMap.empty();
+    }
+
+    @Override
+    public Object emptyList() {
+        return PersistentVector.empty();
+    }
+
+    @Override
+    public DataResult<Object> mergeToList(final Object list, final List<Object> values) {
+        if (list == empty()) {
+            return DataResult.success(PersistentVector.copyOf(values));
+        }
+        if (list instanceof PersistentVector) {
+            return DataResult.success(vector(list).plusAll(values));
+        }
+        final List<Object> elements = elements(list);
+        if (elements == null) {
+            return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+        }
+        return DataResult.success(PersistentVector.copyOf(elements).plusAll(values));
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final Object key, final Object value) {
+        if (!(map instanceof Map) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        return DataResult.success(persistent(map).with(key, value));
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final Map<Object, Object> values) {
+        if (!(map instanceof Map) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        PersistentMap<Object, Object> result = persistent(map);
+        for (final Map.Entry<Object, Object> entry : values.entrySet()) {
+            result = result.with(entry.getKey(), entry.getValue());
+        }
+        return DataResult.success(result);
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final MapLike<Object> values) {
+        if (!(map instanceof Map) && map != empty()) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        PersistentMap<Object, Object> result = persistent(map);
+        for (final Iterator<Pair<Object, Object>> iterator = values.entries().iterator(); iterator.hasNext(); ) {
+            final Pair<Object, Object> entry = iterator.next();
+            result = result.with(entry.getFirst(), entry.getSecond());
+        }
+        return DataResult.success(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PersistentMap<Object, Object> persistent(final Object map) {
+        return map instanceof Map ? PersistentMap.copyOf((Map<Object, Object>) map) : PersistentMap.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PersistentVector<Object> vector(final Object list) {
+        return (PersistentVector<Object>) list;
+    }
+
+    @Override
+    public Object createMap(final Stream<Pair<Object, Object>> map) {
+        PersistentMap<Object, Object> result = PersistentMap.empty();
+        for (final Iterator<Pair<Object, Object>> iterator = map.iterator(); iterator.hasNext(); ) {
+            final Pair<Object, Object> entry = iterator.next();
+            result = result.with(entry.getFirst(), entry.getSecond());
+        }
+        return result;
+    }
+
+    @Override
+    public Object createMap(final Map<Object, Object> map) {
+        return PersistentMap.copyOf(map);
+    }
+
+    @Override
+    public Object createList(final Stream<Object> input) {
+        return PersistentVector.copyOf(input.collect(Collectors.toList()));
+    }
+
+    @Override
+    public Object remove(final Object input, final String key) {
+        if (input instanceof Map && ((Map<?, ?>) input).containsKey(key)) {
+            return persistent(input).without(key);
+        }
+        return input;
+    }
+
+    @Override
+    public ValueVisitor<Object> visitor() {
+        return new PersistentVisitor();
+    }
+
+    @Override
+    public RecordBuilder<Object> mapBuilder() {
+        return new RecordBuilder.MapBuilder<>(this);
+    }
+
+    @Override
+    public String toString() {
+        return "Persistent";
+    }
+
+    private class PersistentVisitor extends ValueVisitor.OpsVisitor<Object> {
+        protected PersistentVisitor() {
+            super(PersistentOps.this);
+        }
+
+        @Override
+        public Object visitByteArray(final byte[] values) {
+            return values;
+        }
+
+        @Override
+        public Object visitIntArray(final int[] values) {
+            return values;
+        }
+
+        @Override
+        public Object visitLongArray(final long[] values) {
+            return values;
+        }
+
+        @Override
+        public ValueVisitor.ListVisitor<Object> visitList(final int size) {
+            final List<Object> elements = new ArrayList<>(Math.max(size, 0));
+            return new ValueVisitor.ListVisitor<Object>() {
+                @Override
+                public void visitElement(final Object value) {
+                    elements.add(value);
+                }
+
+                @Override
+                public Object visitEnd() {
+                    return PersistentVector.copyOf(elements);
+                }
+            };
+        }
+
+        @Override
+        public ValueVisitor.MapVisitor<Object> visitMap(final int size) {
+            return new ValueVisitor.MapVisitor<Object>() {
+                private PersistentMap<Object, Object> map = PersistentMap.empty();
+
+                @Override
+                public void visitEntry(final String key, final Object value) {
+                    map = map.with(key, value);
+                }
+
+                @Override
+                public void visitEntry(final Object key, final Object value) {
+                    map = map.with(key, value);
+                }
+
+                @Override
+                public Object visitEnd() {
+                    return map;
+                }
+            };
+        }
+    }
+}
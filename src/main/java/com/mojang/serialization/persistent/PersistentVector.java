@@ -0,0 +1,161 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.persistent;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Immutable list stored in a trie of 32 wide arrays. {@link #with(int, Object)} and {@link #plus} return a new list in
+ * O(log n), sharing all untouched arrays with this one. Elements must not be null.
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(new Object[0], 0, 0);
+
+    /** arrays are filled from the left, only the rightmost path may be shorter than {@link #WIDTH} */
+    private final Object[] root;
+    private final int shift;
+    private final int size;
+
+    private PersistentVector(final Object[] root, final int shift, final int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Builds the trie bottom up, without intermediate vectors.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> copyOf(final Collection<? extends E> values) {
+        if (values instanceof PersistentVector) {
+            return (PersistentVector<E>) values;
+        }
+        if (values.isEmpty()) {
+            return empty();
+        }
+        final Object[] elements = values.toArray();
+        for (final Object element : elements) {
+            Objects.requireNonNull(element);
+        }
+        List<Object[]> level = new ArrayList<>((elements.length + MASK) >>> BITS);
+        for (int i = 0; i < elements.length; i += WIDTH) {
+            level.add(Arrays.copyOfRange(elements, i, Math.min(i + WIDTH, elements.length)));
+        }
+        int shift = 0;
+        while (level.size() > 1) {
+            final List<Object[]> parents = new ArrayList<>((level.size() + MASK) >>> BITS);
+            for (int i = 0; i < level.size(); i += WIDTH) {
+                parents.add(level.subList(i, Math.min(i + WIDTH, level.size())).toArray());
+            }
+            level = parents;
+            shift += BITS;
+        }
+        return new PersistentVector<>(level.get(0), shift, elements.length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (E) node[index & MASK];
+    }
+
+    /**
+     * Returns a vector with the element at the index replaced.
+     */
+    public PersistentVector<E> with(final int index, final E value) {
+        Objects.requireNonNull(value);
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new PersistentVector<>(set(root, shift, index, value), shift, size);
+    }
+
+    private static Object[] set(final Object[] node, final int level, final int index, final Object value) {
+        final Object[] result = node.clone();
+        final int i = (index >>> level) & MASK;
+        result[i] = level == 0 ? value : set((Object[]) node[i], level - BITS, index, value);
+        return result;
+    }
+
+    /**
+     * Returns a vector with the element appended.
+     */
+    public PersistentVector<E> plus(final E value) {
+        Objects.requireNonNull(value);
+        if (size == 1 << (shift + BITS)) {
+            return new PersistentVector<>(new Object[]{root, path(shift, value)}, shift + BITS, size + 1);
+        }
+        return new PersistentVector<>(append(root, shift, size, value), shift, size + 1);
+    }
+
+    public PersistentVector<E> plusAll(final Collection<? extends E> values) {
+        if (isEmpty()) {
+            return copyOf(values);
+        }
+        PersistentVector<E> result = this;
+        for (final E value : values) {
+            result = result.plus(value);
+        }
+        return result;
+    }
+
+    private static Object[] path(final int level, final Object value) {
+        return level == 0 ? new Object[]{value} : new Object[]{path(level - BITS, value)};
+    }
+
+    private static Object[] append(final Object[] node, final int level, final int index, final Object value) {
+        final int i = (index >>> level) & MASK;
+        final Object[] result = Arrays.copyOf(node, Math.max(node.length, i + 1));
+        if (level == 0) {
+            result[i] = value;
+        } else if (i < node.length) {
+            result[i] = append((Object[]) node[i], level - BITS, index, value);
+        } else {
+            result[i] = path(level - BITS, value);
+        }
+        return result;
+    }
+
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        forEach(root, shift, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void forEach(final Object[] node, final int level, final Consumer<? super E> action) {
+        for (final Object child : node) {
+            if (level == 0) {
+                action.accept((E) child);
+            } else {
+                forEach((Object[]) child, level - BITS, action);
+            }
+        }
+    }
+}
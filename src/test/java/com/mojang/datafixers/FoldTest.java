@@ -0,0 +1,244 @@
+package com.mojang.datafixers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.datafixers.functions.Functions;
+import com.mojang.datafixers.functions.PointFree;
+import com.mojang.datafixers.functions.PointFreeRule;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.families.Algebra;
+import com.mojang.datafixers.types.families.ListAlgebra;
+import com.mojang.datafixers.types.families.RecursiveTypeFamily;
+import com.mojang.datafixers.types.templates.RecursivePoint;
+import com.mojang.datafixers.types.templates.TaggedChoice;
+import com.mojang.datafixers.types.templates.TypeTemplate;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FoldTest {
+    private static final DSL.TypeReference ENTITY = () -> "entity";
+    private static final DSL.TypeReference ITEM = () -> "item";
+    private static final DSL.TypeReference BLOCK = () -> "block";
+    private static final DSL.TypeReference CHUNK = () -> "chunk";
+
+    private static final class TestSchema extends Schema {
+        private TestSchema(final int versionKey, final Schema parent) {
+            super(versionKey, parent);
+        }
+
+        @Override
+        public void registerTypes(final Schema schema, final Map<String, Supplier<TypeTemplate>> entityTypes, final Map<String, Supplier<TypeTemplate>> blockEntityTypes) {
+            schema.registerType(true, ENTITY, () -> DSL.taggedChoiceLazy("id", DSL.string(), entityTypes));
+            schema.registerType(true, ITEM, () -> DSL.optionalFields("tag", DSL.optionalFields("Items", DSL.list(schema.id("item")))));
+            schema.registerType(true, BLOCK, () -> DSL.optionalFields("Children", DSL.list(schema.id("block"))));
+            schema.registerType(false, CHUNK, () -> DSL.optionalFields("Entities", DSL.list(schema.id("entity")), "Blocks", DSL.list(schema.id("block"))));
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            final Map<String, Supplier<TypeTemplate>> map = new HashMap<>();
+            schema.register(map, "rider", () -> DSL.optionalFields("Passengers", DSL.list(schema.id("entity"))));
+            schema.register(map, "chest", () -> DSL.optionalFields("Items", DSL.list(schema.id("item"))));
+            for (int i = 0; i < 70; i++) {
+                schema.registerSimple(map, "simple" + i);
+            }
+            return map;
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerBlockEntities(final Schema schema) {
+            return new HashMap<>();
+        }
+    }
+
+    private static <T> Dynamic<T> rename(final Dynamic<T> dynamic, final String from, final String to) {
+        final Optional<Dynamic<T>> value = dynamic.get(from).result();
+        return value.isPresent() ? dynamic.remove(from).set(to, value.get()) : dynamic;
+    }
+
+    private static DataFix renameCount(final Schema schema) {
+        return new DataFix(schema, false) {
+            @Override
+            protected TypeRewriteRule makeRule() {
+                return fixTypeEverywhereTyped("count", getInputSchema().getType(ITEM), typed -> typed.update(DSL.remainderFinder(), d -> rename(d, "count", "Count")));
+            }
+        };
+    }
+
+    /**
+     * Items nested in the tag of their parent, each with its depth as count.
+     */
+    private static JsonElement nestedItems(final int depth) {
+        JsonObject item = new JsonObject();
+        item.addProperty("count", depth);
+        for (int i = depth - 1; i >= 0; i--) {
+            final JsonArray items = new JsonArray();
+            items.add(item);
+            final JsonObject tag = new JsonObject();
+            tag.add("Items", items);
+            item = new JsonObject();
+            item.addProperty("count", i);
+            item.add("tag", tag);
+        }
+        return item;
+    }
+
+    /**
+     * Walks down the nested items without recursion, {@link JsonElement#equals} would need a deep stack.
+     */
+    private static void assertNestedItems(final int depth, final String countKey, final JsonElement items) {
+        JsonElement item = items;
+        for (int i = 0; i <= depth; i++) {
+            final JsonObject object = item.getAsJsonObject();
+            assertEquals("count at " + i, i, object.get(countKey).getAsInt());
+            assertEquals("keys at " + i, i < depth ? 2 : 1, object.entrySet().size());
+            if (i < depth) {
+                item = object.getAsJsonObject("tag").getAsJsonArray("Items").get(0);
+            }
+        }
+    }
+
+    /**
+     * Runs the action on a new thread with the given stack size and returns its result.
+     */
+    private static <T> T onStack(final long stackSize, final Supplier<T> action) throws InterruptedException {
+        final AtomicReference<T> result = new AtomicReference<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Thread thread = new Thread(null, () -> {
+            try {
+                result.set(action.get());
+            } catch (final Throwable t) {
+                error.set(t);
+            }
+        }, "FoldTest stack", stackSize);
+        thread.start();
+        thread.join();
+        if (error.get() != null) {
+            throw new AssertionError("failed on a " + stackSize + " byte stack", error.get());
+        }
+        return result.get();
+    }
+
+    private static Algebra algebra(final RecursiveTypeFamily family, final int changed) {
+        final List<RewriteResult<?, ?>> views = new ArrayList<>();
+        for (int i = 0; i < family.size(); i++) {
+            views.add(view(family.apply(i), i == changed));
+        }
+        return new ListAlgebra("test", views);
+    }
+
+    private static <A> RewriteResult<A, A> view(final RecursivePoint.RecursivePointType<A> type, final boolean changed) {
+        final PointFree<Function<A, A>> function = changed ? Functions.fun("touch", ops -> Function.identity()) : Functions.in(type);
+        return RewriteResult.create(View.create(type.unfold(), type, function), new BitSet());
+    }
+
+    @Test
+    public void testFoldRewritesReferencingIndices() {
+        final DataFixerBuilder builder = new DataFixerBuilder(2);
+        builder.addSchema(1, TestSchema::new);
+        final Schema schema = builder.addSchema(2, TestSchema::new);
+        builder.addFixer(renameCount(schema));
+        final DataFixer fixer = builder.build(Runnable::run);
+
+        final JsonElement input = new JsonParser().parse("{\"Entities\":[{\"id\":\"rider\",\"Passengers\":[{\"id\":\"chest\",\"Items\":[{\"count\":1,\"tag\":{\"Items\":[{\"count\":2}]}}]}]}],\"Blocks\":[{\"count\":3}]}");
+        final JsonElement expected = new JsonParser().parse("{\"Entities\":[{\"id\":\"rider\",\"Passengers\":[{\"id\":\"chest\",\"Items\":[{\"tag\":{\"Items\":[{\"Count\":2}]},\"Count\":1}]}]}],\"Blocks\":[{\"count\":3}]}");
+        assertEquals("fix(x)", expected, fixer.update(CHUNK, new Dynamic<>(JsonOps.INSTANCE, input), 1, 2).getValue());
+    }
+
+    @Test
+    public void testDeepFold() throws InterruptedException {
+        final DataFixerBuilder builder = new DataFixerBuilder(2);
+        builder.addSchema(1, TestSchema::new);
+        builder.addFixer(renameCount(builder.addSchema(2, TestSchema::new)));
+        final DataFixer fixer = builder.build(Runnable::run);
+        final int depth = 2000;
+
+        // decoding, folding and encoding all use the work stack
+        final JsonElement result = onStack(512 * 1024, () -> fixer.update(ITEM, new Dynamic<>(JsonOps.INSTANCE, nestedItems(depth)), 1, 2).getValue());
+        assertNestedItems(depth, "Count", result);
+    }
+
+    @Test
+    public void testChangedIndices() {
+        final Schema schema = new TestSchema(1, null);
+        final RecursivePoint.RecursivePointType<?> entity = (RecursivePoint.RecursivePointType<?>) schema.getTypeRaw(ENTITY);
+        final int entityIndex = entity.index();
+        final int itemIndex = ((RecursivePoint.RecursivePointType<?>) schema.getTypeRaw(ITEM)).index();
+        final int blockIndex = ((RecursivePoint.RecursivePointType<?>) schema.getTypeRaw(BLOCK)).index();
+        final RecursiveTypeFamily family = entity.family();
+
+        assertTrue("entity -> entity", family.references(entityIndex).get(entityIndex));
+        assertTrue("entity -> item", family.references(entityIndex).get(itemIndex));
+        assertFalse("item -> entity", family.references(itemIndex).get(entityIndex));
+        assertFalse("block -> item", family.references(blockIndex).get(itemIndex));
+
+        final Algebra touchItem = algebra(family, itemIndex);
+        final BitSet itemChanged = family.changedIndices(touchItem);
+        assertTrue("item", itemChanged.get(itemIndex));
+        assertTrue("entity contains item", itemChanged.get(entityIndex));
+        assertFalse("block", itemChanged.get(blockIndex));
+
+        final IntFunction<RewriteResult<?, ?>> itemFolds = family.foldChanged(touchItem);
+        assertFalse("item", Functions.isIdentity(itemFolds.apply(itemIndex).view().function()));
+        assertFalse("entity contains item", Functions.isIdentity(itemFolds.apply(entityIndex).view().function()));
+        assertTrue("block", Functions.isIdentity(itemFolds.apply(blockIndex).view().function()));
+
+        final IntFunction<RewriteResult<?, ?>> entityFolds = family.foldChanged(algebra(family, entityIndex));
+        assertFalse("entity", Functions.isIdentity(entityFolds.apply(entityIndex).view().function()));
+        assertTrue("item", Functions.isIdentity(entityFolds.apply(itemIndex).view().function()));
+        assertTrue("block", Functions.isIdentity(entityFolds.apply(blockIndex).view().function()));
+    }
+
+    @Test
+    public void testParallelChoiceRewrite() {
+        final Schema schema = new TestSchema(1, null);
+        final RecursivePoint.RecursivePointType<?> entity = (RecursivePoint.RecursivePointType<?>) schema.getTypeRaw(ENTITY);
+        final int itemIndex = ((RecursivePoint.RecursivePointType<?>) schema.getTypeRaw(ITEM)).index();
+        final RecursiveTypeFamily family = entity.family();
+        final TaggedChoice.TaggedChoiceType<?> choice = schema.findChoiceType(ENTITY);
+        assertTrue("large choice", choice.types().size() >= TaggedChoice.PARALLEL_REWRITE_THRESHOLD);
+
+        final RewriteResult<Dynamic<?>, Dynamic<?>> touch = RewriteResult.create(View.create("touch", DSL.remainderType(), DSL.remainderType(), ops -> Function.identity()), new BitSet());
+        final TypeRewriteRule rule = TypeRewriteRule.everywhere(TypeRewriteRule.ifSame(DSL.remainderType(), touch), PointFreeRule.nop(), false, false);
+        final Algebra algebra = algebra(family, itemIndex);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final RewriteResult<?, ?> sequentialAll;
+        final RewriteResult<?, ?> sequentialHmap;
+        final RewriteResult<?, ?> parallelAll;
+        final RewriteResult<?, ?> parallelHmap;
+        try {
+            sequentialAll = choice.all(rule, false, false);
+            sequentialHmap = family.template().hmap(family, family.foldChanged(algebra)).apply(entity.index());
+            parallelAll = TaggedChoice.rewriteOn(pool, () -> choice.all(rule, false, false));
+            parallelHmap = TaggedChoice.rewriteOn(pool, () -> family.template().hmap(family, family.foldChanged(algebra)).apply(entity.index()));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals("all", sequentialAll.view(), parallelAll.view());
+        assertEquals("all", sequentialAll.recData(), parallelAll.recData());
+        assertEquals("hmap", sequentialHmap.view().newType(), parallelHmap.view().newType());
+        assertEquals("hmap", sequentialHmap.view().function().toString(), parallelHmap.view().function().toString());
+        assertEquals("hmap", sequentialHmap.recData(), parallelHmap.recData());
+    }
+}
@@ -0,0 +1,69 @@
+package com.mojang.datafixers.functions;
+
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.InterningOps;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.StringPool;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PointFreeTest {
+    private static final class Counting extends PointFree<Object> {
+        private final AtomicInteger evaluations = new AtomicInteger();
+
+        @Override
+        public Function<DynamicOps<?>, Object> eval() {
+            return ops -> {
+                evaluations.incrementAndGet();
+                return new Object();
+            };
+        }
+
+        @Override
+        public String toString(final int level) {
+            return "counting";
+        }
+    }
+
+    @Test
+    public void testCacheHits() {
+        final Counting function = new Counting();
+        final StringPool pool = new StringPool(16);
+
+        final Object json = function.evalCached(JsonOps.INSTANCE);
+        assertSame("same ops", json, function.evalCached(JsonOps.INSTANCE));
+        final Object interning = function.evalCached(InterningOps.of(JsonOps.INSTANCE, pool));
+        assertSame("equal ops", interning, function.evalCached(InterningOps.of(JsonOps.INSTANCE, pool)));
+        assertNotSame("other ops", json, interning);
+        assertEquals("evaluations", 2, function.evaluations.get());
+
+        for (int i = 0; i < 4; i++) {
+            function.evalCached(InterningOps.of(JsonOps.INSTANCE, new StringPool(16)));
+        }
+        assertSame("cached before the others", json, function.evalCached(JsonOps.INSTANCE));
+    }
+
+    @Test
+    public void testOpsAreNotRetained() throws InterruptedException {
+        final Counting function = new Counting();
+        DynamicOps<?> ops = InterningOps.of(JsonOps.INSTANCE, new StringPool(16));
+        final WeakReference<DynamicOps<?>> reference = new WeakReference<>(ops);
+        function.evalCached(ops);
+        assertEquals("evaluations", 1, function.evaluations.get());
+
+        ops = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("released", reference.get());
+    }
+}
@@ -1,19 +1,41 @@
 package com.mojang.serialization;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.binary.BinaryOps;
+import com.mojang.serialization.binary.BinaryTag;
+import com.mojang.serialization.binary.BinaryTagIO;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import com.mojang.serialization.json.JsonStreams;
+import com.mojang.serialization.json.JsonText;
+import com.mojang.serialization.json.JsonTextOps;
+import com.mojang.serialization.persistent.PersistentOps;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class RoundtripTest {
     // Constructors, equals and hashcode are auto-generated
@@ -142,6 +164,21 @@ public class RoundtripTest {
         }
     }
 
+    private static final class Node {
+        public static final Codec<Node> CODEC = Codec.recursive("Node", self -> RecordCodecBuilder.create(i -> i.group(
+            Codec.INT.fieldOf("value").forGetter(n -> n.value),
+            self.listOf().fieldOf("children").forGetter(n -> n.children)
+        ).apply(i, Node::new)));
+
+        private final int value;
+        private final List<Node> children;
+
+        private Node(final int value, final List<Node> children) {
+            this.value = value;
+            this.children = children;
+        }
+    }
+
     private static final class TestData {
         public static final Codec<TestData> CODEC = RecordCodecBuilder.create(i -> i.group(
             Codec.FLOAT.fieldOf("a").forGetter(d -> d.a),
@@ -281,4 +318,251 @@ public class RoundtripTest {
     public void testReadWriteCompressed() {
         testReadWrite(JsonOps.COMPRESSED);
     }
+
+    @Test
+    public void testWriteReadBinary() {
+        testWriteRead(BinaryOps.INSTANCE);
+    }
+
+    @Test
+    public void testReadWriteBinary() {
+        testReadWrite(BinaryOps.INSTANCE);
+    }
+
+    @Test
+    public void testBinaryBytes() throws IOException {
+        final TestData data = makeRandomTestData();
+
+        final BinaryTag encoded = TestData.CODEC.encodeStart(BinaryOps.INSTANCE, data).getOrThrow(false, s -> { });
+        final byte[] bytes = BinaryTagIO.toBytes(encoded);
+        assertEquals("payload size", bytes.length, 1 + encoded.payloadSize());
+
+        final BinaryTag read = BinaryTagIO.fromBytes(bytes);
+        assertEquals("read(write(x)) == x", encoded, read);
+        assertEquals("decode(read(write(x))) == x", DataResult.success(data), TestData.CODEC.parse(BinaryOps.INSTANCE, read));
+    }
+
+    @Test
+    public void testPrimitiveNumbers() {
+        for (final DynamicOps<?> ops : Arrays.<DynamicOps<?>>asList(JsonOps.INSTANCE, JsonOps.COMPRESSED, BinaryOps.INSTANCE, JavaOps.INSTANCE, PersistentOps.INSTANCE)) {
+            testPrimitiveNumbers(ops);
+        }
+    }
+
+    private static <T> void testPrimitiveNumbers(final DynamicOps<T> ops) {
+        for (final int value : new int[]{0, 1, -1, Integer.MAX_VALUE}) {
+            assertEquals(ops + " int " + value, DataResult.success(value), Codec.INT.parse(ops, ops.createInt(value)));
+            assertEquals(ops + " long " + value, DataResult.success((long) value), Codec.LONG.parse(ops, ops.createLong(value)));
+            assertEquals(ops + " float " + value, DataResult.success((float) value), Codec.FLOAT.parse(ops, ops.createFloat(value)));
+            assertEquals(ops + " double " + value, DataResult.success((double) value), Codec.DOUBLE.parse(ops, ops.createDouble(value)));
+        }
+        final T notNumber = ops.createString("x");
+        assertEquals(ops + " int error", ops.getIntValue(notNumber).error().map(e -> e.message()), Codec.INT.parse(ops, notNumber).error().map(e -> e.message()));
+        assertEquals(ops + " double error", ops.getDoubleValue(notNumber).error().map(e -> e.message()), Codec.DOUBLE.parse(ops, notNumber).error().map(e -> e.message()));
+    }
+
+    @Test
+    public void testWriteReadJava() {
+        testWriteRead(JavaOps.INSTANCE);
+    }
+
+    @Test
+    public void testReadWriteJava() {
+        testReadWrite(JavaOps.INSTANCE);
+    }
+
+    @Test
+    public void testWriteReadPersistent() {
+        testWriteRead(PersistentOps.INSTANCE);
+    }
+
+    @Test
+    public void testReadWritePersistent() {
+        testReadWrite(PersistentOps.INSTANCE);
+    }
+
+    @Test
+    public void testWriteReadCompressing() {
+        testWriteRead(CompressingOps.of(BinaryOps.INSTANCE));
+    }
+
+    @Test
+    public void testReadWriteCompressing() {
+        testReadWrite(CompressingOps.of(JavaOps.INSTANCE));
+    }
+
+    @Test
+    public void testInterning() {
+        final TestData data = makeRandomTestData();
+        final DynamicOps<JsonElement> ops = InterningOps.of(JsonOps.INSTANCE, new StringPool(64));
+
+        final JsonElement encoded = TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).result().get();
+        assertEquals("read(write(x)) == x", DataResult.success(data), TestData.CODEC.parse(ops, encoded));
+
+        final JsonElement names = new JsonParser().parse("[\"minecraft:stone\", \"minecraft:stone\"]");
+        final List<String> decoded = Codec.STRING.listOf().parse(ops, names).result().get();
+        assertSame("intern(x) == intern(x)", decoded.get(0), decoded.get(1));
+    }
+
+    @Test
+    public void testHashConsing() {
+        final TestData data = makeRandomTestData();
+        final DynamicOps<JsonElement> ops = new HashConsingOps<>(JsonOps.INSTANCE, 1 << 16);
+
+        final JsonArray encoded = TestData.CODEC.listOf().encodeStart(ops, Arrays.asList(data, data)).result().get().getAsJsonArray();
+        assertSame("cons(x) == cons(x)", encoded.get(0), encoded.get(1));
+        assertEquals("cons(x) == x", TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).result().get(), encoded.get(0));
+    }
+
+    @Test
+    public void testConvert() {
+        final TestData data = makeRandomTestData();
+
+        final JsonElement json = TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).result().get();
+        final BinaryTag binary = JsonOps.INSTANCE.convertTo(BinaryOps.INSTANCE, json);
+        final Object java = BinaryOps.INSTANCE.convertTo(JavaOps.INSTANCE, binary);
+        final JsonElement converted = JavaOps.INSTANCE.convertTo(JsonOps.INSTANCE, java);
+
+        assertEquals("decode(json(java(binary(x)))) == x", DataResult.success(data), TestData.CODEC.parse(JsonOps.INSTANCE, converted));
+    }
+
+    @Test
+    public void testWriteReadText() {
+        testWriteRead(JsonTextOps.INSTANCE);
+    }
+
+    @Test
+    public void testTextMatchesJson() throws IOException {
+        final TestData data = makeRandomTestData();
+        final StringWriter writer = new StringWriter();
+
+        JsonStreams.write(TestData.CODEC, data, writer);
+        assertEquals("text(x) == json(x)", TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).result().get().toString(), writer.toString());
+    }
+
+    @Test
+    public void testTextMergeKeepsNumbers() {
+        final JsonTextOps ops = JsonTextOps.INSTANCE;
+        final JsonText map = ops.createMap(ImmutableMap.of(ops.createString("d"), ops.createDouble(1.0), ops.createString("l"), ops.createList(Stream.of(ops.createDouble(0.5), ops.createString("]")))));
+        assertEquals("merge(x)", "{\"d\":1.0,\"l\":[0.5,\"]\"],\"e\":2.5}", ops.mergeToMap(map, ops.createString("e"), ops.createFloat(2.5f)).result().get().toString());
+    }
+
+    @Test
+    public void testTextDeepNesting() throws IOException {
+        final JsonTextOps ops = JsonTextOps.INSTANCE;
+        final int depth = 10_000;
+        JsonText value = ops.createInt(1);
+        for (int i = 0; i < depth; i++) {
+            value = i % 2 == 0
+                ? ops.mapBuilder().add("a", value).build(ops.empty()).result().get()
+                : ops.listBuilder().add(value).build(ops.empty()).result().get();
+        }
+        final StringBuilder expected = new StringBuilder();
+        for (int i = depth - 1; i >= 0; i--) {
+            expected.append(i % 2 == 0 ? "{\"a\":" : "[");
+        }
+        expected.append('1');
+        for (int i = 0; i < depth; i++) {
+            expected.append(i % 2 == 0 ? '}' : ']');
+        }
+
+        final StringWriter writer = new StringWriter();
+        value.writeTo(writer);
+        assertEquals("write(x)", expected.toString(), writer.toString());
+        assertEquals("toString(x)", expected.toString(), value.toString());
+
+        JsonText nested = value;
+        for (int i = depth - 1; i >= 0; i--) {
+            nested = i % 2 == 0 ? ops.getMap(nested).result().get().get("a") : ops.getStream(nested).result().get().findFirst().get();
+        }
+        assertEquals("read(x)", ops.createInt(1), nested);
+    }
+
+    @Test
+    public void testRecursiveCodecDepth() throws InterruptedException {
+        final int depth = 10_000;
+        JsonObject json = new JsonObject();
+        json.addProperty("value", depth);
+        json.add("children", new JsonArray());
+        for (int i = depth - 1; i >= 0; i--) {
+            final JsonArray children = new JsonArray();
+            children.add(json);
+            json = new JsonObject();
+            json.addProperty("value", i);
+            json.add("children", children);
+        }
+        final JsonObject input = json;
+
+        final Node decoded = onStack(512 * 1024, () -> Node.CODEC.parse(JsonOps.INSTANCE, input).result().get());
+        Node node = decoded;
+        for (int i = 0; i <= depth; i++) {
+            assertEquals("decode(x) value", i, node.value);
+            assertEquals("decode(x) children", i < depth ? 1 : 0, node.children.size());
+            node = i < depth ? node.children.get(0) : null;
+        }
+
+        JsonElement encoded = onStack(512 * 1024, () -> Node.CODEC.encodeStart(JsonOps.INSTANCE, decoded).result().get());
+        for (int i = 0; i <= depth; i++) {
+            assertEquals("encode(decode(x)) value", i, encoded.getAsJsonObject().get("value").getAsInt());
+            final JsonArray children = encoded.getAsJsonObject().getAsJsonArray("children");
+            assertEquals("encode(decode(x)) children", i < depth ? 1 : 0, children.size());
+            encoded = i < depth ? children.get(0) : null;
+        }
+    }
+
+    /**
+     * Runs the action on a new thread with the given stack size and returns its result.
+     */
+    private static <T> T onStack(final long stackSize, final Supplier<T> action) throws InterruptedException {
+        final AtomicReference<T> result = new AtomicReference<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Thread thread = new Thread(null, () -> {
+            try {
+                result.set(action.get());
+            } catch (final Throwable t) {
+                error.set(t);
+            }
+        }, "RoundtripTest stack", stackSize);
+        thread.start();
+        thread.join();
+        if (error.get() != null) {
+            throw new AssertionError("failed on a " + stackSize + " byte stack", error.get());
+        }
+        return result.get();
+    }
+
+    @Test
+    public void testStreamedList() throws IOException {
+        final List<TestData> data = IntStream.range(0, 10).mapToObj(i -> makeRandomTestData()).collect(Collectors.toList());
+        final StringWriter writer = new StringWriter();
+
+        JsonStreams.writeList(TestData.CODEC, data.stream(), writer);
+        final List<DataResult<TestData>> read = JsonStreams.readList(TestData.CODEC, new JsonReader(new StringReader(writer.toString()))).collect(Collectors.toList());
+        assertEquals("read(write(x)) == x", data.stream().map(DataResult::success).collect(Collectors.toList()), read);
+    }
+
+    @Test
+    public void testBinaryLazy() {
+        final TestData data = makeRandomTestData();
+
+        final BinaryTag encoded = TestData.CODEC.encodeStart(BinaryOps.INSTANCE, data).getOrThrow(false, s -> { });
+        final byte[] bytes = BinaryTagIO.toBytes(encoded);
+        final BinaryTag lazy = BinaryTagIO.readLazy(ByteBuffer.wrap(bytes));
+
+        assertEquals("decode(lazy(x)) == x", DataResult.success(data), TestData.CODEC.parse(BinaryOps.INSTANCE, lazy));
+        assertArrayEquals("write(lazy(x)) == x", bytes, BinaryTagIO.toBytes(lazy));
+
+        final TestData changed = new TestData(data.a, data.b, data.c, data.d, data.e + 1, data.f, data.g, data.h, data.i, data.j, data.k, data.dayData);
+        final BinaryTag updated = BinaryOps.INSTANCE.set(lazy, "e", BinaryOps.INSTANCE.createInt(data.e + 1));
+        final BinaryTag.MapTag original = (BinaryTag.MapTag) lazy;
+        final BinaryTag.MapTag copy = (BinaryTag.MapTag) updated;
+        for (final String key : new String[]{"i", "j", "k", "day_data"}) {
+            // the unchanged lists and maps are still the lazily read tags, which write their bytes back without decoding
+            assertSame("set(lazy(x)).get(" + key + ") == lazy(x).get(" + key + ")", original.get(key), copy.get(key));
+            assertArrayEquals("write(set(lazy(x)).get(" + key + "))", BinaryTagIO.toBytes(original.get(key)), BinaryTagIO.toBytes(copy.get(key)));
+        }
+        final byte[] written = BinaryTagIO.toBytes(updated);
+        assertArrayEquals("write(set(lazy(x))) == write(set(x))", BinaryTagIO.toBytes(TestData.CODEC.encodeStart(BinaryOps.INSTANCE, changed).getOrThrow(false, s -> { })), written);
+        assertEquals("decode(set(lazy(x))) == set(x)", DataResult.success(changed), TestData.CODEC.parse(BinaryOps.INSTANCE, BinaryTagIO.readLazy(ByteBuffer.wrap(written))));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.mojang.serialization.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PersistentMapTest {
+    /**
+     * Key with a chosen hash code, so that tests can make keys collide fully or share a prefix of their hash.
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        private Key(final int id, final int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Key && ((Key) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key[" + id + ", " + hash + "]";
+        }
+    }
+
+    private static <K, V> void assertSameMap(final String message, final Map<K, V> expected, final PersistentMap<K, V> actual) {
+        assertEquals(message, expected, actual);
+        assertEquals(message + " size", expected.size(), actual.size());
+        assertEquals(message + " order", new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        final List<K> keys = new ArrayList<>();
+        actual.forEach((k, v) -> keys.add(k));
+        assertEquals(message + " forEach", new ArrayList<>(expected.keySet()), keys);
+        for (final Map.Entry<K, V> entry : expected.entrySet()) {
+            assertEquals(message + " get", entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testCollisions() {
+        final Map<Key, Integer> expected = new LinkedHashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        // full collisions, and hashes that only differ above the first levels of the trie
+        for (int i = 0; i < 40; i++) {
+            final Key key = new Key(i, i < 20 ? 7 : 7 + (i << 20));
+            expected.put(key, i);
+            map = map.with(key, i);
+        }
+        assertSameMap("with(x)", expected, map);
+        assertNull("missing", map.get(new Key(100, 7)));
+        assertFalse("missing", map.containsKey(new Key(100, 7)));
+
+        for (int i = 0; i < 40; i += 3) {
+            final Key key = new Key(i, i < 20 ? 7 : 7 + (i << 20));
+            expected.remove(key);
+            map = map.without(key);
+            assertSameMap("without(" + key + ")", expected, map);
+        }
+        final Key replaced = new Key(1, 7);
+        expected.put(replaced, -1);
+        map = map.with(replaced, -1);
+        assertSameMap("replace", expected, map);
+
+        for (final Key key : new ArrayList<>(expected.keySet())) {
+            expected.remove(key);
+            map = map.without(key);
+            assertSameMap("without(" + key + ")", expected, map);
+        }
+        assertSame("empty", PersistentMap.empty(), map);
+    }
+
+    @Test
+    public void testSnapshotsAreImmutable() {
+        final PersistentMap<String, Integer> first = PersistentMap.<String, Integer>empty().with("a", 1).with("b", 2);
+        final PersistentMap<String, Integer> second = first.with("c", 3).with("a", 4);
+        final PersistentMap<String, Integer> third = second.without("b");
+
+        final Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("a", 1);
+        expected.put("b", 2);
+        assertSameMap("first", expected, first);
+        expected.put("c", 3);
+        expected.put("a", 4);
+        assertSameMap("second", expected, second);
+        expected.remove("b");
+        assertSameMap("third", expected, third);
+
+        final Integer value = 4;
+        final PersistentMap<String, Integer> same = PersistentMap.<String, Integer>empty().with("a", value);
+        assertSame("same value", same, same.with("a", value));
+        assertSame("missing key", same, same.without("b"));
+    }
+
+    @Test
+    public void testCompactionKeepsOrder() {
+        final Map<Integer, Integer> expected = new LinkedHashMap<>();
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 200; i++) {
+            expected.put(i, i);
+            map = map.with(i, i);
+        }
+        // removes more entries than stay, which compacts the map several times
+        for (int i = 0; i < 200; i++) {
+            if (i % 5 != 2) {
+                expected.remove(i);
+                map = map.without(i);
+            }
+        }
+        assertSameMap("compacted", expected, map);
+
+        expected.put(0, 0);
+        map = map.with(0, 0);
+        expected.put(7, -7);
+        map = map.with(7, -7);
+        assertSameMap("with(x) after compaction", expected, map);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(1234);
+        final Map<Key, Integer> expected = new LinkedHashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        final List<PersistentMap<Key, Integer>> snapshots = new ArrayList<>();
+        final List<Map<Key, Integer>> expectedSnapshots = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            final int id = random.nextInt(300);
+            // few distinct hashes, so that collision nodes are created and removed
+            final Key key = new Key(id, id % 37 * 0x1001);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+            if (i % 500 == 0) {
+                snapshots.add(map);
+                expectedSnapshots.add(new LinkedHashMap<>(expected));
+            }
+        }
+        assertSameMap("random", expected, map);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertSameMap("snapshot " + i, expectedSnapshots.get(i), snapshots.get(i));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mojang.serialization.persistent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentVectorTest {
+    private static final int[] BOUNDARIES = {31, 32, 33, 1023, 1024, 1025, 32 * 1024, 32 * 1024 + 1};
+
+    @Test
+    public void testPlusAcrossLevels() {
+        final int max = BOUNDARIES[BOUNDARIES.length - 1];
+        final List<Integer> expected = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        int next = 0;
+        for (final int boundary : BOUNDARIES) {
+            while (vector.size() < boundary) {
+                vector = vector.plus(next);
+                expected.add(next++);
+            }
+            assertEquals("plus(x) " + boundary, expected, vector);
+            assertEquals("copyOf(x) " + boundary, expected, PersistentVector.copyOf(expected));
+            final List<Integer> iterated = new ArrayList<>();
+            vector.forEach(iterated::add);
+            assertEquals("forEach(x) " + boundary, expected, iterated);
+        }
+        assertEquals("size", max, vector.size());
+    }
+
+    @Test
+    public void testSnapshotsAreImmutable() {
+        final List<PersistentVector<Integer>> snapshots = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i <= 1025; i++) {
+            snapshots.add(vector);
+            vector = vector.plus(i);
+        }
+        final PersistentVector<Integer> last = vector;
+        for (final int boundary : new int[]{0, 31, 32, 1023, 1024}) {
+            vector = vector.with(boundary, -1);
+        }
+        final PersistentVector<Integer> extended = last.plusAll(snapshots.get(40));
+
+        for (int size = 0; size < snapshots.size(); size++) {
+            final PersistentVector<Integer> snapshot = snapshots.get(size);
+            assertEquals("size", size, snapshot.size());
+            for (int i = 0; i < size; i++) {
+                assertEquals("get(i)", i, (int) snapshot.get(i));
+            }
+        }
+        for (int i = 0; i < last.size(); i++) {
+            assertEquals("last.get(i)", i, (int) last.get(i));
+            final boolean changed = i == 0 || i == 31 || i == 32 || i == 1023 || i == 1024;
+            assertEquals("with(i)", changed ? -1 : i, (int) vector.get(i));
+        }
+        assertEquals("plusAll", last.size() + 40, extended.size());
+        assertEquals("plusAll", snapshots.get(40), extended.subList(last.size(), extended.size()));
+    }
+
+    @Test
+    public void testBounds() {
+        final PersistentVector<Integer> vector = PersistentVector.<Integer>empty().plus(1);
+        for (final int index : new int[]{-1, 1}) {
+            try {
+                vector.get(index);
+                throw new AssertionError("get(" + index + ")");
+            } catch (final IndexOutOfBoundsException e) {
+                assertTrue(e.getMessage().contains("Index: " + index));
+            }
+        }
+    }
+}